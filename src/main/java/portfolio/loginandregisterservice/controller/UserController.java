@@ -1,57 +1,104 @@
 package portfolio.loginandregisterservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import portfolio.loginandregisterservice.infra.security.UserAuthenticated;
 import portfolio.loginandregisterservice.model.entities.User;
 import portfolio.loginandregisterservice.model.records.UserCreateRecord;
+import portfolio.loginandregisterservice.model.records.UserPageRecord;
+import portfolio.loginandregisterservice.model.records.UserProfileRecord;
 import portfolio.loginandregisterservice.model.records.UserRequestRecord;
 import portfolio.loginandregisterservice.model.records.UserResponseRecord;
 import portfolio.loginandregisterservice.model.service.EmailService;
+import portfolio.loginandregisterservice.model.service.UserImportService;
 import portfolio.loginandregisterservice.model.service.UserService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 public class UserController {
 
+    private static final Logger log = LoggerFactory.getLogger(UserController.class);
+
     private final UserService userService;
     private final EmailService emailService;
-
-    public UserController(UserService userService, EmailService emailService) {
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public UserController(UserService userService, EmailService emailService,
+                          UserImportService userImportService, ObjectMapper objectMapper,
+                          @Value("${users.page.default-size:50}") int defaultPageSize,
+                          @Value("${users.page.max-size:500}") int maxPageSize) {
         this.userService = userService;
         this.emailService = emailService;
+        this.userImportService = userImportService;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @PostMapping("/register")
     public ResponseEntity<?> create(@Valid @RequestBody UserCreateRecord data) {
-        User user = new User(data.name(), data.email(), data.password(), "");
-        user = userService.create(user);
-        emailService.sendActivationEmail(user.getEmail(), user.getUniqueToken());
+        User user = new User(data.name(), data.email(), data.password());
+        userService.create(user);
 
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
 
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                         @RequestParam(defaultValue = "false") boolean activated,
+                                         InputStream body) throws IOException {
+        UserImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(
+                MediaType.parseMediaType(contentType)) ? UserImportService.Format.NDJSON : UserImportService.Format.CSV;
+        return ResponseEntity.ok().body(userImportService.importUsers(
+                new InputStreamReader(body, StandardCharsets.UTF_8), format, activated));
+    }
+
+    @GetMapping("/me")
+    public ResponseEntity<?> me(@AuthenticationPrincipal UserAuthenticated user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        // built from the authenticated principal, so bearer requests never reach the database
+        return ResponseEntity.ok().body(new UserProfileRecord(
+                user.getId(),
+                user.getName(),
+                user.getUsername(),
+                user.isEnabled()
+        ));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> findById(@PathVariable Long id) {
         if (id == null || id <= 0) {
             throw new IllegalArgumentException("A valid id must be provided.");
         }
 
-        Optional<User> userOptional = userService.findById(id);
+        Optional<UserResponseRecord> userOptional = userService.findResponseById(id);
         if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            UserResponseRecord userResponseRecord = new UserResponseRecord(
-                    user.getId(),
-                    user.getName(),
-                    user.getEmail(),
-                    user.getPassword(),
-                    user.getUniqueToken()
-            );
-            return ResponseEntity.ok().body(userResponseRecord);
+            return ResponseEntity.ok().eTag(String.valueOf(userOptional.get().version())).body(userOptional.get());
         } else {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
@@ -66,17 +113,9 @@ public class UserController {
             throw new IllegalArgumentException("A valid email must be provided.");
         }
 
-        Optional<User> userOptional = userService.findByEmail(email);
+        Optional<UserResponseRecord> userOptional = userService.findResponseByEmail(email);
         if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            UserResponseRecord userResponseRecord = new UserResponseRecord(
-                    user.getId(),
-                    user.getName(),
-                    user.getEmail(),
-                    user.getPassword(),
-                    user.getUniqueToken()
-            );
-            return ResponseEntity.ok().body(userResponseRecord);
+            return ResponseEntity.ok().body(userOptional.get());
         } else {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
@@ -84,30 +123,82 @@ public class UserController {
         }
     }
 
-    @GetMapping("/all")
-    public ResponseEntity<?> findAll() {
-        return ResponseEntity.ok().body(userService.findAll()
-                .stream()
-                .map(user -> new UserResponseRecord(user.getId()
-                        , user.getName()
-                        , user.getEmail()
-                        , user.getPassword()
-                        , user.getUniqueToken()))
-                .collect(Collectors.toList()));
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> findAll(@RequestParam(required = false) String after,
+                                     @RequestParam(required = false) Integer size) {
+        int pageSize = size == null ? defaultPageSize : size;
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        pageSize = Math.min(pageSize, maxPageSize);
+
+        // one extra row tells whether another page follows
+        List<UserResponseRecord> users = userService.findPage(decodeCursor(after), pageSize + 1);
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            nextCursor = encodeCursor(users.getLast().id());
+        }
+        return ResponseEntity.ok().body(new UserPageRecord(users, nextCursor));
+    }
+
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        StreamingResponseBody body = out -> {
+            ObjectWriter writer = objectMapper.writerFor(UserResponseRecord.class);
+            userService.streamAll(user -> {
+                try {
+                    out.write(writer.writeValueAsBytes(user));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @PutMapping("/update")
-    public ResponseEntity<?> update(@RequestBody UserRequestRecord data) {
+    public ResponseEntity<?> update(@RequestBody UserRequestRecord data,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (data == null || data.id() == null || data.id() <= 0) {
             throw new IllegalArgumentException("Invalid id!");
         }
-        User user = userService.update(new User(data.name(), data.email(), data.password(), data.uniqueToken()));
+        // the version the client read, so an update based on a stale copy is refused
+        Long version = data.version() != null ? data.version() : parseVersion(ifMatch);
+        User changes = new User(data.name(), data.email(), data.password());
+        changes.setId(data.id());
+        User user;
+        if (version != null) {
+            changes.setVersion(version);
+            user = userService.update(changes);
+        } else {
+            // deprecated: kept so clients written before versioning keep working
+            log.warn("Unversioned update of user {}; send the version in the body or an If-Match header",
+                    data.id());
+            user = userService.update(changes, false);
+        }
 
-        return ResponseEntity.ok().body(new UserResponseRecord(user.getId()
+        return ResponseEntity.ok().eTag(String.valueOf(user.getVersion())).body(new UserResponseRecord(user.getId()
                 , user.getName()
                 , user.getEmail()
                 , user.getPassword()
-                , user.getUniqueToken()));
+                , user.getVersion()));
+    }
+
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String tag = ifMatch.strip();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header.");
+        }
     }
 
     @GetMapping("/reset/{token}")
@@ -137,5 +228,18 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.US_ASCII));
+    }
 
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
 }
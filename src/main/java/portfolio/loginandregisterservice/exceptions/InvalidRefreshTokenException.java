@@ -0,0 +1,8 @@
+package portfolio.loginandregisterservice.exceptions;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
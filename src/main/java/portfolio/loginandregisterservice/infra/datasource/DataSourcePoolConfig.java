@@ -0,0 +1,19 @@
+package portfolio.loginandregisterservice.infra.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Connection pool defaults shared by the primary and the read replica pools.
+ */
+@Configuration
+public class DataSourcePoolConfig {
+
+    // static: post-processors must be created before the beans they process
+    @Bean
+    static PoolSizingPostProcessor poolSizingPostProcessor(
+            @Value("${datasource.pool.connections-per-core:2}") int connectionsPerCore) {
+        return new PoolSizingPostProcessor(connectionsPerCore, Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,90 @@
+package portfolio.loginandregisterservice.infra.datasource;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Upgrades databases created by builds that generated the schema with {@code ddl-auto=update}. Their
+ * {@code tb_users} is moved aside before the migrations run and its users are copied into the new table after.
+ */
+@Component
+public class LegacySchemaMigration implements FlywayMigrationStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacySchemaMigration.class);
+
+    static final String LEGACY_USERS = "tb_users_legacy";
+
+    @Override
+    public void migrate(Flyway flyway) {
+        DataSource dataSource = flyway.getConfiguration().getDataSource();
+        try {
+            try (Connection connection = dataSource.getConnection()) {
+                if (!exists(connection, flyway.getConfiguration().getTable()) && exists(connection, "tb_users")) {
+                    log.warn("Found tb_users without a Flyway history; moving it to {} to migrate its users",
+                            LEGACY_USERS);
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("alter table tb_users rename to " + LEGACY_USERS);
+                    }
+                }
+            }
+            flyway.migrate();
+            try (Connection connection = dataSource.getConnection()) {
+                if (exists(connection, LEGACY_USERS)) {
+                    copyLegacyUsers(connection);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not upgrade the legacy schema", e);
+        }
+    }
+
+    // normalized_email is left empty for NormalizedEmailBackfill; pending activation tokens are not carried over
+    private void copyLegacyUsers(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            int copied = statement.executeUpdate("insert into tb_users (id, name, email, password, enabled, token_version)"
+                    + " select l.id, l.name, l.email, l.password, l.enabled, 0 from " + LEGACY_USERS + " l"
+                    + " where not exists (select 1 from tb_users u where u.id = l.id)");
+            long maxId;
+            try (ResultSet rs = statement.executeQuery("select coalesce(max(id), 0) from tb_users")) {
+                rs.next();
+                maxId = rs.getLong(1);
+            }
+            // ids come from a pooled sequence handing out blocks of 50; start past a whole block
+            statement.execute("alter sequence tb_users_seq restart with " + (maxId + 51));
+            connection.commit();
+            statement.execute("drop table " + LEGACY_USERS);
+            connection.commit();
+            log.info("Copied {} users from {}", copied, LEGACY_USERS);
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static boolean exists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : new String[]{table, table.toUpperCase(), table.toLowerCase()}) {
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), name,
+                    new String[]{"TABLE"})) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,40 @@
+package portfolio.loginandregisterservice.infra.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Sizes Hikari pools whose {@code maximum-pool-size} was left unset from the number of cores, as {@code cores *
+ * connectionsPerCore + 1}.
+ */
+public class PoolSizingPostProcessor implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolSizingPostProcessor.class);
+
+    private final int connectionsPerCore;
+    private final int cores;
+
+    public PoolSizingPostProcessor(int connectionsPerCore, int cores) {
+        this.connectionsPerCore = connectionsPerCore;
+        this.cores = cores;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource pool && pool.getMaximumPoolSize() < 1) {
+            size(pool);
+            log.info("Sized connection pool {} to {} connections for {} cores", beanName,
+                    pool.getMaximumPoolSize(), cores);
+        }
+        return bean;
+    }
+
+    /**
+     * Applies the core-derived size to {@code pool}.
+     */
+    public void size(HikariDataSource pool) {
+        pool.setMaximumPoolSize(cores * connectionsPerCore + 1);
+    }
+}
@@ -0,0 +1,43 @@
+package portfolio.loginandregisterservice.infra.mail;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/** Executor used by the outbox dispatcher. */
+@Configuration
+@EnableScheduling
+public class MailDispatchConfig {
+
+    @Value("${mail.outbox.concurrency:4}")
+    private int concurrency;
+
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    TaskExecutor mailDispatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        // the dispatcher never hands out more work than it has slots for
+        executor.setQueueCapacity(concurrency);
+        executor.setThreadNamePrefix("mail-dispatch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    @Bean(name = "mailDispatchExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    TaskExecutor virtualMailDispatchExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mail-dispatch-");
+        executor.setVirtualThreads(true);
+        // no concurrency limit here: a second limit would block the scheduler thread in execute()
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+    }
+}
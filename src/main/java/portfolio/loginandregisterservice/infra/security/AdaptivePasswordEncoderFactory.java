@@ -0,0 +1,121 @@
+package portfolio.loginandregisterservice.infra.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/** Builds the {@link DelegatingPasswordEncoder} used for all password hashing. */
+public class AdaptivePasswordEncoderFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptivePasswordEncoderFactory.class);
+
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 31;
+    private static final int MIN_ARGON2_ITERATIONS = 2;
+    private static final int MIN_PBKDF2_ITERATIONS = 600_000;
+    private static final int PBKDF2_PROBE_ITERATIONS = 50_000;
+    private static final Set<String> SUPPORTED_ALGORITHMS = Set.of("bcrypt", "argon2", "pbkdf2");
+    private static final String PROBE_PASSWORD = "Calibration@Probe1";
+
+    private final String algorithm;
+    private final Duration targetHashTime;
+    private final int bcryptStrength;
+    private final int argon2MemoryKib;
+    private final int argon2Iterations;
+    private final int pbkdf2Iterations;
+
+    public AdaptivePasswordEncoderFactory(String algorithm, Duration targetHashTime, int bcryptStrength,
+                                          int argon2MemoryKib, int argon2Iterations, int pbkdf2Iterations) {
+        this.algorithm = algorithm;
+        this.targetHashTime = targetHashTime;
+        this.bcryptStrength = bcryptStrength;
+        this.argon2MemoryKib = argon2MemoryKib;
+        this.argon2Iterations = argon2Iterations;
+        this.pbkdf2Iterations = pbkdf2Iterations;
+    }
+
+    public PasswordEncoder create() {
+        if (!SUPPORTED_ALGORITHMS.contains(algorithm)) {
+            throw new IllegalArgumentException("Unsupported password hashing algorithm: " + algorithm);
+        }
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(
+                "bcrypt".equals(algorithm) ? resolveBcryptStrength() : MIN_BCRYPT_STRENGTH);
+        PasswordEncoder argon2 = argon2(
+                "argon2".equals(algorithm) ? resolveArgon2Iterations() : MIN_ARGON2_ITERATIONS);
+        PasswordEncoder pbkdf2 = new IteratedPbkdf2PasswordEncoder(
+                "pbkdf2".equals(algorithm) ? resolvePbkdf2Iterations() : MIN_PBKDF2_ITERATIONS);
+
+        Map<String, PasswordEncoder> encoders = Map.of("bcrypt", bcrypt, "argon2", argon2, "pbkdf2", pbkdf2);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        // hashes stored before the switch to prefixed encodings are plain bcrypt
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    private int resolveBcryptStrength() {
+        if (bcryptStrength > 0) {
+            return bcryptStrength;
+        }
+        // every extra point of bcrypt cost doubles the work
+        double probe = measure(new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH));
+        int extra = (int) Math.floor(Math.log(targetMillis() / probe) / Math.log(2));
+        int strength = Math.clamp(MIN_BCRYPT_STRENGTH + (long) extra, MIN_BCRYPT_STRENGTH, MAX_BCRYPT_STRENGTH);
+        log.info("Calibrated bcrypt strength {} ({} ms at strength {})", strength, Math.round(probe), MIN_BCRYPT_STRENGTH);
+        return strength;
+    }
+
+    private int resolveArgon2Iterations() {
+        if (argon2Iterations > 0) {
+            return argon2Iterations;
+        }
+        double probe = measure(argon2(MIN_ARGON2_ITERATIONS));
+        int iterations = Math.max(MIN_ARGON2_ITERATIONS,
+                (int) Math.round(targetMillis() / (probe / MIN_ARGON2_ITERATIONS)));
+        log.info("Calibrated argon2id iterations {} with {} KiB ({} ms at {} iterations)",
+                iterations, argon2MemoryKib, Math.round(probe), MIN_ARGON2_ITERATIONS);
+        return iterations;
+    }
+
+    private int resolvePbkdf2Iterations() {
+        if (pbkdf2Iterations > 0) {
+            return pbkdf2Iterations;
+        }
+        double probe = measure(new IteratedPbkdf2PasswordEncoder(PBKDF2_PROBE_ITERATIONS));
+        long scaled = Math.round(targetMillis() / probe * PBKDF2_PROBE_ITERATIONS / 10_000.0) * 10_000;
+        int iterations = Math.clamp(scaled, MIN_PBKDF2_ITERATIONS, Integer.MAX_VALUE);
+        log.info("Calibrated pbkdf2 iterations {} ({} ms at {} iterations)",
+                iterations, Math.round(probe), PBKDF2_PROBE_ITERATIONS);
+        return iterations;
+    }
+
+    private Argon2PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(16, 32, 1, argon2MemoryKib, iterations);
+    }
+
+    private double targetMillis() {
+        return targetHashTime.toNanos() / 1_000_000.0;
+    }
+
+    /**
+     * Median wall time in milliseconds of a few encodes, after one warm-up run.
+     */
+    private static double measure(PasswordEncoder encoder) {
+        encoder.encode(PROBE_PASSWORD);
+        double[] samples = new double[3];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            encoder.encode(PROBE_PASSWORD);
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(samples);
+        return samples[1];
+    }
+}
@@ -6,9 +6,11 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 import portfolio.loginandregisterservice.model.entities.User;
-import portfolio.loginandregisterservice.model.repository.UserRepository;
+import portfolio.loginandregisterservice.model.records.RefreshTokenRequestRecord;
+import portfolio.loginandregisterservice.model.records.TokenResponseRecord;
 import portfolio.loginandregisterservice.model.service.EmailService;
 
 import java.util.Optional;
@@ -17,17 +19,14 @@ import java.util.Optional;
 public class AuthenticationController {
     private final EmailService emailService;
     private final AuthenticationService authenticationService;
-    private final UserRepository userRepository;
 
-    public AuthenticationController(EmailService emailService, AuthenticationService authenticationService,
-                                    UserRepository userRepository) {
+    public AuthenticationController(EmailService emailService, AuthenticationService authenticationService) {
         this.emailService = emailService;
         this.authenticationService = authenticationService;
-        this.userRepository = userRepository;
     }
 
     @PostMapping("/authenticate")
-    public String authenticate(Authentication authentication) {
+    public TokenResponseRecord authenticate(Authentication authentication) {
         try {
             return authenticationService.authenticate(authentication);
         } catch (RuntimeException e) {
@@ -36,12 +35,16 @@ public class AuthenticationController {
 
     }
 
+    @PostMapping("/refresh")
+    public TokenResponseRecord refresh(@Valid @RequestBody RefreshTokenRequestRecord data) {
+        return authenticationService.refresh(data.refreshToken());
+    }
+
     @GetMapping("/activate/{token}")
     public ResponseEntity<String> activateAccount(@Valid @PathVariable String token) {
-        Optional<User> userOptional = userRepository.findByUniqueToken(token);
+        Optional<User> userOptional = authenticationService.activateAccount(token);
         if (userOptional.isPresent()) {
             User user = userOptional.get();
-            authenticationService.activateAccount(user);
             emailService.sendWelcomeEmail(user.getEmail(), user.getName());
             return ResponseEntity.ok("Account activated successfully.");
         }
@@ -1,35 +1,56 @@
 package portfolio.loginandregisterservice.infra.security;
 
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.entities.UserToken;
+import portfolio.loginandregisterservice.model.events.UserChangedEvent;
+import portfolio.loginandregisterservice.model.records.TokenResponseRecord;
 import portfolio.loginandregisterservice.model.repository.UserRepository;
+import portfolio.loginandregisterservice.model.service.UserTokenService;
 
-import java.util.UUID;
+import java.util.Optional;
 
 @Service
 public class AuthenticationService {
 
-    private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
     private final UserRepository userRepository;
+    private final UserTokenService userTokenService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
-    public AuthenticationService(JwtService jwtService,
-                                 UserRepository userRepository) {
-        this.jwtService = jwtService;
+    public AuthenticationService(RefreshTokenService refreshTokenService,
+                                 UserRepository userRepository,
+                                 UserTokenService userTokenService,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.refreshTokenService = refreshTokenService;
         this.userRepository = userRepository;
+        this.userTokenService = userTokenService;
+        this.eventPublisher = eventPublisher;
     }
 
-    public String authenticate(Authentication authentication) {
-        return jwtService.generateToken(authentication);
+    public TokenResponseRecord authenticate(Authentication authentication) {
+        return refreshTokenService.issue(authentication);
     }
 
-    public void activateAccount(User user) {
-        user.setEnabled(true);
-        String newToken = UUID.randomUUID().toString();
-        user.setUniqueToken(newToken);
-        userRepository.save(user);
+    public TokenResponseRecord refresh(String refreshToken) {
+        return refreshTokenService.refresh(refreshToken);
+    }
+
+    @Transactional
+    public Optional<User> activateAccount(String token) {
+        return userTokenService.consume(token, UserToken.Purpose.ACTIVATION)
+                .flatMap(userRepository::findById)
+                .map(user -> {
+                    user.setEnabled(true);
+                    User saved = userRepository.save(user);
+                    eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), saved.getEmail()));
+                    return saved;
+                });
     }
 
 }
@@ -0,0 +1,61 @@
+package portfolio.loginandregisterservice.infra.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+/**
+ * PBKDF2 encoder that records its iteration count in the hash ({@code iterations$hash}), so the count
+ * can change without breaking stored hashes.
+ */
+public class IteratedPbkdf2PasswordEncoder implements PasswordEncoder {
+
+    private static final Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm ALGORITHM =
+            Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256;
+    private static final int SALT_LENGTH = 16;
+
+    private final int iterations;
+    private final Pbkdf2PasswordEncoder delegate;
+
+    public IteratedPbkdf2PasswordEncoder(int iterations) {
+        this.iterations = iterations;
+        this.delegate = forIterations(iterations);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return iterations + "$" + delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        int separator = encodedPassword == null ? -1 : encodedPassword.indexOf('$');
+        if (separator <= 0) {
+            return false;
+        }
+        int storedIterations;
+        try {
+            storedIterations = Integer.parseInt(encodedPassword, 0, separator, 10);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        PasswordEncoder encoder = storedIterations == iterations ? delegate : forIterations(storedIterations);
+        return encoder.matches(rawPassword, encodedPassword.substring(separator + 1));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int separator = encodedPassword == null ? -1 : encodedPassword.indexOf('$');
+        if (separator <= 0) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(encodedPassword, 0, separator, 10) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static Pbkdf2PasswordEncoder forIterations(int iterations) {
+        return new Pbkdf2PasswordEncoder("", SALT_LENGTH, iterations, ALGORITHM);
+    }
+}
@@ -0,0 +1,29 @@
+package portfolio.loginandregisterservice.infra.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/** Publishes the public verification keys so other services can check our tokens locally. */
+@RestController
+public class JwksController {
+
+    private final RotatingJwkSource jwkSource;
+    private final CacheControl cacheControl;
+
+    public JwksController(RotatingJwkSource jwkSource,
+                          @Value("${jwt.keys.reload-interval:PT1M}") Duration reloadInterval) {
+        this.jwkSource = jwkSource;
+        this.cacheControl = CacheControl.maxAge(reloadInterval).cachePublic();
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok().cacheControl(cacheControl).body(jwkSource.publicJwkSet());
+    }
+}
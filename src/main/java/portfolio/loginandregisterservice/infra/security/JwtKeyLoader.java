@@ -0,0 +1,82 @@
+package portfolio.loginandregisterservice.infra.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * Reads the PEM key pair behind {@code jwt.public.key}/{@code jwt.private.key} into a signing JWK for the
+ * configured JWS algorithm.
+ */
+public final class JwtKeyLoader {
+
+    private JwtKeyLoader() {
+    }
+
+    public static JWK load(String algorithm, Resource publicKey, Resource privateKey) {
+        return load(algorithm, publicKey, privateKey, null);
+    }
+
+    public static JWK load(String algorithm, Resource publicKey, Resource privateKey, String kid) {
+        JWSAlgorithm jwsAlgorithm = JWSAlgorithm.parse(algorithm);
+        try {
+            if (JWSAlgorithm.RS256.equals(jwsAlgorithm)) {
+                KeyFactory factory = KeyFactory.getInstance("RSA");
+                RSAKey.Builder builder = new RSAKey.Builder((RSAPublicKey) factory.generatePublic(publicSpec(publicKey)))
+                        .privateKey((RSAPrivateKey) factory.generatePrivate(privateSpec(privateKey)))
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(jwsAlgorithm);
+                return (kid != null ? builder.keyID(kid) : builder.keyIDFromThumbprint()).build();
+            }
+            if (JWSAlgorithm.ES256.equals(jwsAlgorithm)) {
+                KeyFactory factory = KeyFactory.getInstance("EC");
+                ECKey.Builder builder = new ECKey.Builder(Curve.P_256, (ECPublicKey) factory.generatePublic(publicSpec(publicKey)))
+                        .privateKey((ECPrivateKey) factory.generatePrivate(privateSpec(privateKey)))
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(jwsAlgorithm);
+                return (kid != null ? builder.keyID(kid) : builder.keyIDFromThumbprint()).build();
+            }
+        } catch (JOSEException | GeneralSecurityException | ClassCastException e) {
+            throw new IllegalStateException("Key pair does not match JWS algorithm " + algorithm, e);
+        }
+        throw new IllegalArgumentException("Unsupported JWS algorithm: " + algorithm);
+    }
+
+    private static X509EncodedKeySpec publicSpec(Resource resource) {
+        return new X509EncodedKeySpec(readPem(resource));
+    }
+
+    private static PKCS8EncodedKeySpec privateSpec(Resource resource) {
+        return new PKCS8EncodedKeySpec(readPem(resource));
+    }
+
+    private static byte[] readPem(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            String pem = new String(in.readAllBytes(), StandardCharsets.US_ASCII)
+                    .replaceAll("-----(BEGIN|END) [A-Z ]+-----", "")
+                    .replaceAll("\\s", "");
+            return Base64.getDecoder().decode(pem);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read key " + resource.getDescription(), e);
+        }
+    }
+}
@@ -1,27 +1,44 @@
 package portfolio.loginandregisterservice.infra.security;
 
+import com.nimbusds.jose.jwk.JWK;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.stream.Collectors;
 
 @Service
 public class JwtService {
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String NAME_CLAIM = "name";
+    public static final String ENABLED_CLAIM = "enabled";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
     private final JwtEncoder jwtEncoder;
+    private final RotatingJwkSource jwkSource;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final Duration accessTokenTtl;
 
-    public JwtService(JwtEncoder jwtEncoder) {
+    public JwtService(JwtEncoder jwtEncoder, RotatingJwkSource jwkSource,
+                      TokenRevocationRegistry tokenRevocationRegistry,
+                      @Value("${jwt.access-token.ttl:PT1H}") Duration accessTokenTtl) {
         this.jwtEncoder = jwtEncoder;
+        this.jwkSource = jwkSource;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.accessTokenTtl = accessTokenTtl;
     }
 
     public String generateToken(Authentication authentication) {
         Instant now = Instant.now();
-        long expiry = 3600L;
 
         String scopes = authentication.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
@@ -30,11 +47,23 @@ public class JwtService {
         var claims = JwtClaimsSet.builder()
                 .issuer("spring-security-jwt")
                 .issuedAt(now)
-                .expiresAt(now.plusSeconds(expiry))
+                .expiresAt(now.plus(accessTokenTtl))
                 .subject(authentication.getName())
-                .claim("scope",scopes)
-                .build();
+                .claim("scope",scopes);
 
-        return jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+        // lets bearer requests resolve the caller without a database lookup
+        if (authentication.getPrincipal() instanceof UserAuthenticated user) {
+            claims.claim(USER_ID_CLAIM, user.getId())
+                    .claim(NAME_CLAIM, user.getName())
+                    .claim(ENABLED_CLAIM, user.isEnabled())
+                    .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion());
+            tokenRevocationRegistry.seed(user.getId(), user.getTokenVersion());
+        }
+
+        JWK signingKey = jwkSource.activeKey();
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.from(signingKey.getAlgorithm().getName()))
+                .keyId(signingKey.getKeyID())
+                .build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(header, claims.build())).getTokenValue();
     }
-}
\ No newline at end of file
+}
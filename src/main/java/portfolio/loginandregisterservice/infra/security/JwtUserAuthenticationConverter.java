@@ -0,0 +1,22 @@
+package portfolio.loginandregisterservice.infra.security;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+/**
+ * Builds the principal of a bearer request from the validated token alone, so handlers can take a {@link
+ * UserAuthenticated} regardless of how the caller logged in.
+ */
+public class JwtUserAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        return new PreAuthenticatedAuthenticationToken(UserAuthenticated.fromJwt(jwt), jwt,
+                authoritiesConverter.convert(jwt));
+    }
+}
@@ -0,0 +1,228 @@
+package portfolio.loginandregisterservice.infra.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import portfolio.loginandregisterservice.model.entities.User;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/** Rate limits the endpoints that work without a token, before any password is hashed or email sent. */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /** Limits for requests matching {@code matcher}. */
+    public record Rule(String name,
+                       RequestMatcher matcher,
+                       TokenBucketRateLimiter perIp,
+                       TokenBucketRateLimiter perAccount,
+                       Function<HttpServletRequest, String> account) {
+    }
+
+    private static final int MAX_BUFFERED_BODY = 16 * 1024;
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final List<Rule> rules;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(List<Rule> rules, MeterRegistry meterRegistry) {
+        this.rules = List.copyOf(rules);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        for (Rule rule : rules) {
+            if (!rule.matcher().matches(request)) {
+                continue;
+            }
+            if (rule.perAccount() != null && isJson(request)) {
+                request = new BufferedBodyRequest(request);
+            }
+            String ip = request.getRemoteAddr();
+            long wait = rule.perIp() != null ? rule.perIp().tryAcquire(ip) : 0;
+            if (wait > 0) {
+                reject(response, rule, "ip", wait);
+                return;
+            }
+            String account = rule.perAccount() != null ? User.normalizeEmail(rule.account().apply(request)) : null;
+            if (account != null && !account.isEmpty()) {
+                wait = rule.perAccount().tryAcquire(account);
+                if (wait > 0) {
+                    if (rule.perIp() != null) {
+                        rule.perIp().release(ip);
+                    }
+                    reject(response, rule, "account", wait);
+                    return;
+                }
+            }
+            break;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, Rule rule, String limited, long waitNanos) throws IOException {
+        Counter.builder("security.rate_limit.rejections")
+                .tag("rule", rule.name())
+                .tag("key", limited)
+                .register(meterRegistry)
+                .increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.getWriter().write("Too many requests: retry in " + retryAfterSeconds + " seconds.");
+    }
+
+    /**
+     * The {@code email} field of a JSON body, or {@code null}.
+     */
+    public static String jsonEmail(HttpServletRequest request) {
+        if (!(request instanceof BufferedBodyRequest buffered) || buffered.body == null) {
+            return null;
+        }
+        try {
+            JsonNode email = JSON.readTree(buffered.body).get("email");
+            return email != null && email.isTextual() ? email.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.regionMatches(true, 0, MediaType.APPLICATION_JSON_VALUE, 0,
+                MediaType.APPLICATION_JSON_VALUE.length());
+    }
+
+    /**
+     * The username of an httpBasic {@code Authorization} header, or {@code null}.
+     */
+    public static String basicAuthUsername(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, "Basic ", 0, 6)) {
+            return null;
+        }
+        try {
+            String credentials = new String(Base64.getDecoder().decode(header.substring(6).strip()),
+                    StandardCharsets.UTF_8);
+            int colon = credentials.indexOf(':');
+            return colon < 0 ? null : credentials.substring(0, colon);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // replays the buffered bytes to the rest of the chain; larger bodies are replayed but not parsed
+    private static class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+        private final ReplayInputStream replay;
+
+        BufferedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            InputStream in = request.getInputStream();
+            byte[] prefix = in.readNBytes(MAX_BUFFERED_BODY + 1);
+            this.body = prefix.length <= MAX_BUFFERED_BODY ? prefix : null;
+            this.replay = new ReplayInputStream(new SequenceInputStream(new ByteArrayInputStream(prefix), in));
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return replay;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset()));
+        }
+
+        private Charset charset() {
+            String encoding = getCharacterEncoding();
+            return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        }
+    }
+
+    // the body was already read blocking, so a read listener is simply told everything is available
+    private static class ReplayInputStream extends ServletInputStream {
+
+        private final InputStream in;
+        private boolean finished;
+        private long consumed;
+
+        ReplayInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b < 0) {
+                finished = true;
+            } else {
+                consumed++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n < 0) {
+                finished = true;
+            } else {
+                consumed += n;
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            try {
+                long before;
+                do {
+                    before = consumed;
+                    readListener.onDataAvailable();
+                } while (!finished && consumed > before);
+                if (finished) {
+                    readListener.onAllDataRead();
+                }
+            } catch (IOException | RuntimeException e) {
+                readListener.onError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package portfolio.loginandregisterservice.infra.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import portfolio.loginandregisterservice.exceptions.InvalidRefreshTokenException;
+import portfolio.loginandregisterservice.model.entities.RefreshToken;
+import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.events.UserTokensRevokedEvent;
+import portfolio.loginandregisterservice.model.records.TokenResponseRecord;
+import portfolio.loginandregisterservice.model.repository.RefreshTokenRepository;
+import portfolio.loginandregisterservice.model.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates single-use refresh tokens. Redeeming one that was already redeemed revokes its whole
+ * family.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtService jwtService;
+    private final Duration refreshTokenTtl;
+    private final Duration accessTokenTtl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               JwtService jwtService,
+                               @Value("${jwt.refresh-token.ttl:P30D}") Duration refreshTokenTtl,
+                               @Value("${jwt.access-token.ttl:PT1H}") Duration accessTokenTtl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtService = jwtService;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.accessTokenTtl = accessTokenTtl;
+    }
+
+    @Transactional
+    public TokenResponseRecord issue(Authentication authentication) {
+        if (!(authentication.getPrincipal() instanceof UserAuthenticated user)) {
+            throw new IllegalStateException("Refresh tokens can only be issued to application users.");
+        }
+        String refreshToken = store(user.getId(), user.getTokenVersion(), UUID.randomUUID().toString());
+        return new TokenResponseRecord(jwtService.generateToken(authentication), refreshToken,
+                accessTokenTtl.toSeconds());
+    }
+
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public TokenResponseRecord refresh(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Unknown refresh token."));
+
+        // conditional update, so two concurrent redemptions cannot both succeed
+        if (refreshTokenRepository.markUsed(token.getId()) == 0) {
+            refreshTokenRepository.deleteByFamilyId(token.getFamilyId());
+            log.warn("Refresh token reused for user {}, revoked its token family", token.getUserId());
+            throw new InvalidRefreshTokenException("Refresh token already used.");
+        }
+        if (token.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidRefreshTokenException("Refresh token expired.");
+        }
+
+        User user = userRepository.findById(token.getUserId())
+                .filter(User::isEnabled)
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token no longer valid."));
+        if (user.getTokenVersion() != token.getTokenVersion()) {
+            refreshTokenRepository.deleteByFamilyId(token.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token no longer valid.");
+        }
+
+        UserAuthenticated principal = new UserAuthenticated(user);
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(
+                principal, null, principal.getAuthorities());
+        String refreshToken = store(user.getId(), user.getTokenVersion(), token.getFamilyId());
+        return new TokenResponseRecord(jwtService.generateToken(authentication), refreshToken,
+                accessTokenTtl.toSeconds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onTokensRevoked(UserTokensRevokedEvent event) {
+        refreshTokenRepository.deleteByUserId(event.userId());
+    }
+
+    // redeemed tokens are kept until they expire so that reuse can still be detected
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private String store(Long userId, int tokenVersion, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(hash(rawToken), familyId, userId, tokenVersion,
+                Instant.now().plus(refreshTokenTtl)));
+        return rawToken;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
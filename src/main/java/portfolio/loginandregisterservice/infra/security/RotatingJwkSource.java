@@ -0,0 +1,255 @@
+package portfolio.loginandregisterservice.infra.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.AsymmetricJWK;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.Key;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/** Signing and verification keys that can be rotated without a restart. */
+public class RotatingJwkSource implements JWKSource<SecurityContext> {
+
+    private static final Logger log = LoggerFactory.getLogger(RotatingJwkSource.class);
+
+    private final String algorithm;
+    private final Resource publicKey;
+    private final Resource privateKey;
+    private final Path keyDirectory;
+    private final Duration retention;
+    private final Duration activationDelay;
+    private final Clock clock;
+    private volatile Keys keys;
+
+    public RotatingJwkSource(String algorithm, Resource publicKey, Resource privateKey,
+                             Path keyDirectory, Duration retention, Duration activationDelay, Clock clock) {
+        this.algorithm = algorithm;
+        this.publicKey = publicKey;
+        this.privateKey = privateKey;
+        this.keyDirectory = keyDirectory;
+        this.retention = retention;
+        this.activationDelay = activationDelay;
+        this.clock = clock;
+        Map<String, JWK> signing = scan();
+        if (signing.isEmpty()) {
+            throw new IllegalStateException("No JWT signing keys found in " + keyDirectory);
+        }
+        // keys present at startup have most likely been published by other nodes since they were written
+        Map<String, Instant> publishedAt = new HashMap<>();
+        signing.keySet().forEach(kid -> publishedAt.put(kid, keyModified(kid)));
+        this.keys = Keys.of(signing, activeKid(signing, publishedAt), publishedAt, Map.of(), Map.of());
+    }
+
+    /**
+     * The key new tokens are signed with.
+     */
+    public JWK activeKey() {
+        return keys.active();
+    }
+
+    /**
+     * Public halves of every key tokens may currently be verified with, in JWKS form.
+     */
+    public Map<String, Object> publicJwkSet() {
+        return keys.publicJwkSet();
+    }
+
+    /**
+     * Selects among the signing keys; {@link JwtService} names the active one by kid.
+     */
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        return jwkSelector.select(keys.signingSet());
+    }
+
+    /**
+     * Resolves the verification key from the token's {@code kid}; tokens without one are checked against the active
+     * key.
+     */
+    public JWSKeySelector<SecurityContext> verificationKeySelector() {
+        return (header, context) -> {
+            Keys current = keys;
+            String kid = header.getKeyID() != null ? header.getKeyID() : current.active().getKeyID();
+            Verifier verifier = current.verifiers().get(kid);
+            if (verifier == null || !verifier.algorithm().equals(header.getAlgorithm())) {
+                return List.of();
+            }
+            return List.of(verifier.key());
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.keys.reload-interval:PT1M}",
+            initialDelayString = "${jwt.keys.reload-interval:PT1M}")
+    public synchronized void reload() {
+        Keys current = keys;
+        Map<String, JWK> signing;
+        try {
+            signing = scan();
+        } catch (RuntimeException e) {
+            log.warn("Could not reload JWT keys, keeping the current keys", e);
+            return;
+        }
+        if (signing.isEmpty()) {
+            log.warn("No JWT signing keys found in {}, keeping the current keys", keyDirectory);
+            return;
+        }
+        Instant now = clock.instant();
+        Map<String, Instant> publishedAt = new HashMap<>();
+        signing.keySet().forEach(kid -> publishedAt.put(kid, current.publishedAt().getOrDefault(kid, now)));
+        String active = activeKid(signing, publishedAt);
+
+        Map<String, Instant> retiredUntil = new HashMap<>();
+        Map<String, JWK> retired = new HashMap<>();
+        current.verificationKeys().forEach((kid, jwk) -> {
+            if (signing.containsKey(kid)) {
+                return;
+            }
+            Instant until = current.retiredUntil().getOrDefault(kid, now.plus(retention));
+            if (until.isAfter(now)) {
+                retiredUntil.put(kid, until);
+                retired.put(kid, jwk);
+            }
+        });
+
+        if (active.equals(current.active().getKeyID())
+                && signing.keySet().equals(current.signingKeys().keySet())
+                && retired.keySet().equals(current.retiredUntil().keySet())) {
+            return;
+        }
+        if (!active.equals(current.active().getKeyID())) {
+            log.info("Rotated JWT signing key from {} to {}", current.active().getKeyID(), active);
+        }
+        keys = Keys.of(signing, active, publishedAt, retired, retiredUntil);
+    }
+
+    private Map<String, JWK> scan() {
+        Map<String, JWK> signing = new LinkedHashMap<>();
+        if (keyDirectory == null) {
+            JWK jwk = JwtKeyLoader.load(algorithm, publicKey, privateKey);
+            signing.put(jwk.getKeyID(), jwk);
+            return signing;
+        }
+        // oldest first, so the last entry is the active key
+        for (Path privateFile : privateKeyFiles()) {
+            String fileName = privateFile.getFileName().toString();
+            String kid = fileName.substring(0, fileName.length() - ".key".length());
+            Path publicFile = privateFile.resolveSibling(kid + ".pub");
+            if (!Files.isRegularFile(publicFile)) {
+                log.warn("Skipping JWT key {}: no matching {}", kid, publicFile.getFileName());
+                continue;
+            }
+            try {
+                signing.put(kid, JwtKeyLoader.load(algorithm,
+                        new FileSystemResource(publicFile), new FileSystemResource(privateFile), kid));
+            } catch (RuntimeException e) {
+                // most likely a pair that is still being written; picked up on the next reload
+                log.warn("Skipping JWT key {}: {}", kid, e.getMessage());
+            }
+        }
+        return signing;
+    }
+
+    private List<Path> privateKeyFiles() {
+        try (Stream<Path> files = Files.list(keyDirectory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".key"))
+                    .filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(RotatingJwkSource::lastModified)
+                            .thenComparing(path -> path.getFileName().toString()))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list JWT keys in " + keyDirectory, e);
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * The newest key that has been published long enough, or the oldest key when none has.
+     */
+    private String activeKid(Map<String, JWK> signing, Map<String, Instant> publishedAt) {
+        Instant publishedBefore = clock.instant().minus(activationDelay);
+        List<String> kids = new ArrayList<>(signing.keySet());
+        for (String kid : kids.reversed()) {
+            if (!publishedAt.get(kid).isAfter(publishedBefore)) {
+                return kid;
+            }
+        }
+        return kids.getFirst();
+    }
+
+    private Instant keyModified(String kid) {
+        if (keyDirectory == null) {
+            return Instant.EPOCH;
+        }
+        return lastModified(keyDirectory.resolve(kid + ".key")).toInstant();
+    }
+
+    private record Verifier(JWSAlgorithm algorithm, Key key) {
+    }
+
+    private record Keys(JWK active,
+                        Map<String, JWK> signingKeys,
+                        Map<String, Instant> publishedAt,
+                        JWKSet signingSet,
+                        Map<String, JWK> verificationKeys,
+                        Map<String, Verifier> verifiers,
+                        Map<String, Instant> retiredUntil,
+                        Map<String, Object> publicJwkSet) {
+
+        static Keys of(Map<String, JWK> signing, String activeKid, Map<String, Instant> publishedAt,
+                       Map<String, JWK> retired, Map<String, Instant> retiredUntil) {
+            Map<String, JWK> verificationKeys = new LinkedHashMap<>(retired);
+            signing.forEach((kid, jwk) -> verificationKeys.put(kid, jwk.toPublicJWK()));
+
+            Map<String, Verifier> verifiers = new HashMap<>();
+            verificationKeys.forEach((kid, jwk) -> {
+                try {
+                    verifiers.put(kid, new Verifier((JWSAlgorithm) jwk.getAlgorithm(),
+                            ((AsymmetricJWK) jwk).toPublicKey()));
+                } catch (JOSEException e) {
+                    throw new IllegalStateException("Unusable JWT verification key " + kid, e);
+                }
+            });
+
+            return new Keys(signing.get(activeKid),
+                    Map.copyOf(signing),
+                    Map.copyOf(publishedAt),
+                    new JWKSet(List.copyOf(signing.values())),
+                    Map.copyOf(verificationKeys),
+                    Map.copyOf(verifiers),
+                    Map.copyOf(retiredUntil),
+                    new JWKSet(List.copyOf(verificationKeys.values())).toJSONObject(true));
+        }
+    }
+}
@@ -1,70 +1,187 @@
 package portfolio.loginandregisterservice.infra.security;
 
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     @Value("${jwt.public.key}")
-    private RSAPublicKey key;
+    private Resource publicKey;
     @Value("${jwt.private.key}")
-    private RSAPrivateKey priv;
+    private Resource privateKey;
+    @Value("${jwt.signing.algorithm:RS256}")
+    private String signingAlgorithm;
+    @Value("${jwt.keys.dir:}")
+    private String keyDirectory;
+    @Value("${jwt.access-token.ttl:PT1H}")
+    private Duration accessTokenTtl;
+    @Value("${jwt.keys.reload-interval:PT1M}")
+    private Duration keyReloadInterval;
+    @Value("${security.password.algorithm:bcrypt}")
+    private String passwordAlgorithm;
+    @Value("${security.password.target-hash-time:PT0.25S}")
+    private Duration targetHashTime;
+    @Value("${security.password.bcrypt.strength:0}")
+    private int bcryptStrength;
+    @Value("${security.password.argon2.memory-kib:19456}")
+    private int argon2MemoryKib;
+    @Value("${security.password.argon2.iterations:0}")
+    private int argon2Iterations;
+    @Value("${security.password.pbkdf2.iterations:0}")
+    private int pbkdf2Iterations;
+    @Value("${security.password.hashing.threads:0}")
+    private int hashingThreads;
+    @Value("${security.password.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+    @Value("${security.password.hashing.retry-after-seconds:1}")
+    private long hashingRetryAfterSeconds;
+    @Value("${security.credential-cache.ttl:PT1M}")
+    private Duration credentialCacheTtl;
+    @Value("${security.credential-cache.max-size:10000}")
+    private long credentialCacheMaxSize;
+    @Value("${security.jwt-cache.max-size:10000}")
+    private long jwtCacheMaxSize;
+    @Value("${security.rate-limit.max-keys:100000}")
+    private long rateLimitMaxKeys;
+    @Value("${security.rate-limit.authenticate.per-ip:60/PT1M}")
+    private String authenticatePerIp;
+    @Value("${security.rate-limit.authenticate.per-account:20/PT1M}")
+    private String authenticatePerAccount;
+    @Value("${security.rate-limit.register.per-ip:20/PT1H}")
+    private String registerPerIp;
+    @Value("${security.rate-limit.register.per-account:5/PT1H}")
+    private String registerPerAccount;
+    @Value("${security.rate-limit.forget-password.per-ip:10/PT1H}")
+    private String forgetPasswordPerIp;
+    @Value("${security.rate-limit.forget-password.per-account:3/PT1H}")
+    private String forgetPasswordPerAccount;
+    @Value("${security.rate-limit.reset.per-ip:20/PT1H}")
+    private String resetPerIp;
+    @Value("${security.rate-limit.activate.per-ip:20/PT1H}")
+    private String activatePerIp;
 
     @Bean
-    SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain filterChain(HttpSecurity http, JwtDecoder jwtDecoder, MeterRegistry meterRegistry)
+            throws Exception {
         http.csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(
                         auth -> auth
                                 .requestMatchers("/authenticate").permitAll()
+                                .requestMatchers("/refresh").permitAll()
                                 .requestMatchers("/register").permitAll()
                                 .requestMatchers("/activate/**").permitAll()
                                 .requestMatchers("/forgetPassword/**").permitAll()
                                 .requestMatchers("/reset/**").permitAll()
+                                .requestMatchers("/.well-known/jwks.json").permitAll()
                                 .anyRequest().authenticated())
+                .addFilterBefore(rateLimitFilter(meterRegistry), BasicAuthenticationFilter.class)
+                .addFilterBefore(new PasswordHashingRejectionFilter(), BasicAuthenticationFilter.class)
                 .httpBasic(Customizer.withDefaults())
                 .oauth2ResourceServer(
                         conf -> conf.jwt(
-                                jwt -> jwt.decoder(jwtDecoder())));
+                                jwt -> jwt.decoder(jwtDecoder)
+                                        .jwtAuthenticationConverter(new JwtUserAuthenticationConverter())));
         return http.build();
     }
 
+    // not a bean, so the servlet container does not register it a second time outside the security chain
+    private RateLimitFilter rateLimitFilter(MeterRegistry meterRegistry) {
+        return new RateLimitFilter(List.of(
+                new RateLimitFilter.Rule("authenticate", antMatcher("/authenticate"),
+                        TokenBucketRateLimiter.of(authenticatePerIp, rateLimitMaxKeys),
+                        TokenBucketRateLimiter.of(authenticatePerAccount, rateLimitMaxKeys),
+                        RateLimitFilter::basicAuthUsername),
+                new RateLimitFilter.Rule("register", antMatcher("/register"),
+                        TokenBucketRateLimiter.of(registerPerIp, rateLimitMaxKeys),
+                        TokenBucketRateLimiter.of(registerPerAccount, rateLimitMaxKeys),
+                        RateLimitFilter::jsonEmail),
+                new RateLimitFilter.Rule("forget-password", antMatcher("/forgetPassword/**"),
+                        TokenBucketRateLimiter.of(forgetPasswordPerIp, rateLimitMaxKeys),
+                        TokenBucketRateLimiter.of(forgetPasswordPerAccount, rateLimitMaxKeys),
+                        request -> request.getParameter("email")),
+                new RateLimitFilter.Rule("reset", antMatcher("/reset/**"),
+                        TokenBucketRateLimiter.of(resetPerIp, rateLimitMaxKeys), null, null),
+                new RateLimitFilter.Rule("activate", antMatcher("/activate/**"),
+                        TokenBucketRateLimiter.of(activatePerIp, rateLimitMaxKeys), null, null)),
+                meterRegistry);
+    }
+
+    @Bean
+    PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        PasswordEncoder encoder = new AdaptivePasswordEncoderFactory(passwordAlgorithm, targetHashTime,
+                bcryptStrength, argon2MemoryKib, argon2Iterations, pbkdf2Iterations).create();
+        return new BoundedPasswordEncoder(encoder, threads, hashingQueueCapacity,
+                hashingRetryAfterSeconds, meterRegistry);
+    }
+
+    @Bean
+    VerifiedCredentialCache verifiedCredentialCache() {
+        return new VerifiedCredentialCache(credentialCacheTtl, credentialCacheMaxSize);
+    }
+
+    @Bean
+    AuthenticationProvider authenticationProvider(UserDetailsServiceImpl userDetailsService,
+                                                  PasswordEncoder passwordEncoder,
+                                                  VerifiedCredentialCache verifiedCredentialCache) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        return new CachingAuthenticationProvider(provider, verifiedCredentialCache);
+    }
+
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    RotatingJwkSource jwkSource() {
+        Path directory = keyDirectory.isBlank() ? null : Path.of(keyDirectory);
+        // one interval for the other nodes to load a new key, one for cached JWKS copies to expire
+        return new RotatingJwkSource(signingAlgorithm, publicKey, privateKey, directory,
+                accessTokenTtl, keyReloadInterval.multipliedBy(2), Clock.systemUTC());
     }
 
     @Bean
-    JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(this.key).build();
+    CachingJwtDecoder jwtDecoder(RotatingJwkSource jwkSource, TokenRevocationRegistry tokenRevocationRegistry) {
+        TokenVersionValidator versionValidator = new TokenVersionValidator(tokenRevocationRegistry);
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(jwkSource.verificationKeySelector());
+        // claims are checked by the Spring validators below
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefault(), versionValidator));
+        return new CachingJwtDecoder(decoder, versionValidator, jwtCacheMaxSize);
     }
 
     @Bean
-    JwtEncoder jwtEncoder() {
-        JWK jwk = new RSAKey.Builder(this.key).privateKey(this.priv).build();
-        JWKSource<SecurityContext> jwks = new ImmutableJWKSet<>(new JWKSet(jwk));
-        return new NimbusJwtEncoder(jwks);
+    JwtEncoder jwtEncoder(RotatingJwkSource jwkSource) {
+        return new NimbusJwtEncoder(jwkSource);
     }
-}
\ No newline at end of file
+}
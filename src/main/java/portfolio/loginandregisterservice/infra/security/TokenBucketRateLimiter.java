@@ -0,0 +1,72 @@
+package portfolio.loginandregisterservice.infra.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Token buckets keyed by an arbitrary string (a client IP, an account email). */
+public class TokenBucketRateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Ticker ticker;
+    // the instant each bucket is full again (GCRA), so acquiring is one compare-and-set
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(int capacity, Duration period, long maxKeys, Ticker ticker) {
+        if (capacity < 1 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("A rate limit needs a positive capacity and period");
+        }
+        this.intervalNanos = Math.max(1, period.toNanos() / capacity);
+        this.burstNanos = intervalNanos * capacity;
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .maximumSize(maxKeys)
+                .ticker(ticker)
+                .build();
+    }
+
+    /** Parses {@code <capacity>/<ISO-8601 period>}, e.g. {@code 30/PT1M}; {@code null} for a blank spec. */
+    public static TokenBucketRateLimiter of(String spec, long maxKeys) {
+        if (spec == null || spec.isBlank()) {
+            return null;
+        }
+        int slash = spec.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Rate limit '" + spec + "' must look like 30/PT1M");
+        }
+        return new TokenBucketRateLimiter(Integer.parseInt(spec.substring(0, slash).strip()),
+                Duration.parse(spec.substring(slash + 1).strip()), maxKeys, Ticker.systemTicker());
+    }
+
+    /** Returns zero when a token was taken, otherwise the nanoseconds until one is available. */
+    public long tryAcquire(String key) {
+        long now = ticker.read();
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Puts back a token taken by {@link #tryAcquire} for a request that was refused anyway.
+     */
+    public void release(String key) {
+        AtomicLong fullAt = buckets.getIfPresent(key);
+        if (fullAt != null) {
+            fullAt.addAndGet(-intervalNanos);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package portfolio.loginandregisterservice.infra.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import portfolio.loginandregisterservice.model.events.UserTokensRevokedEvent;
+import portfolio.loginandregisterservice.model.repository.UserRepository;
+
+import java.time.Duration;
+
+/** Minimum accepted token version per user, consulted on every bearer request. */
+@Component
+public class TokenRevocationRegistry {
+
+    private final LoadingCache<Long, Integer> minimumVersions;
+
+    public TokenRevocationRegistry(UserRepository userRepository,
+                                   @Value("${security.token-revocation.refresh-interval:PT30S}") Duration refreshInterval,
+                                   @Value("${security.token-revocation.max-size:100000}") long maxSize) {
+        this.minimumVersions = Caffeine.newBuilder()
+                .expireAfterWrite(refreshInterval)
+                .maximumSize(maxSize)
+                .build(userId -> userRepository.findTokenVersionById(userId).orElse(Integer.MAX_VALUE));
+    }
+
+    public boolean isRevoked(Long userId, int tokenVersion) {
+        return tokenVersion < minimumVersions.get(userId);
+    }
+
+    /** Records the version of a freshly loaded user, so their next bearer request does not have to read it again. */
+    public void seed(Long userId, int tokenVersion) {
+        minimumVersions.asMap().putIfAbsent(userId, tokenVersion);
+    }
+
+    public void revoke(Long userId, int minimumTokenVersion) {
+        minimumVersions.asMap().merge(userId, minimumTokenVersion, Math::max);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokensRevoked(UserTokensRevokedEvent event) {
+        revoke(event.userId(), event.minimumTokenVersion());
+    }
+}
@@ -0,0 +1,32 @@
+package portfolio.loginandregisterservice.infra.security;
+
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Rejects tokens whose version claim was revoked after they were issued.
+ */
+public class TokenVersionValidator implements OAuth2TokenValidator<Jwt> {
+
+    private static final OAuth2Error REVOKED =
+            new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "The token has been revoked", null);
+
+    private final TokenRevocationRegistry registry;
+
+    public TokenVersionValidator(TokenRevocationRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+        Number userId = jwt.getClaim(JwtService.USER_ID_CLAIM);
+        Number version = jwt.getClaim(JwtService.TOKEN_VERSION_CLAIM);
+        if (userId != null && version != null && registry.isRevoked(userId.longValue(), version.intValue())) {
+            return OAuth2TokenValidatorResult.failure(REVOKED);
+        }
+        return OAuth2TokenValidatorResult.success();
+    }
+}
@@ -2,32 +2,77 @@ package portfolio.loginandregisterservice.infra.security;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.jwt.Jwt;
 import portfolio.loginandregisterservice.model.entities.User;
 
 import java.util.Collection;
 import java.util.List;
 
+/**
+ * Immutable snapshot of the fields authentication needs, so instances can be cached
+ * and shared across threads without holding on to a managed entity. For bearer
+ * requests it is rebuilt from the validated token's claims alone, without a
+ * password and without touching the database.
+ */
 public class UserAuthenticated implements UserDetails {
 
-    private  final User user;
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(() -> "read");
+
+    private final Long id;
+    private final String name;
+    private final String email;
+    private final String password;
+    private final boolean enabled;
+    private final int tokenVersion;
 
     public UserAuthenticated(User user) {
-        this.user = user;
+        this(user.getId(), user.getName(), user.getEmail(), user.getPassword(), user.isEnabled(),
+                user.getTokenVersion());
+    }
+
+    private UserAuthenticated(Long id, String name, String email, String password, boolean enabled,
+                              int tokenVersion) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.password = password;
+        this.enabled = enabled;
+        this.tokenVersion = tokenVersion;
+    }
+
+    public static UserAuthenticated fromJwt(Jwt jwt) {
+        Number id = jwt.getClaim(JwtService.USER_ID_CLAIM);
+        Number version = jwt.getClaim(JwtService.TOKEN_VERSION_CLAIM);
+        Boolean enabled = jwt.getClaim(JwtService.ENABLED_CLAIM);
+        return new UserAuthenticated(id == null ? null : id.longValue(), jwt.getClaimAsString(JwtService.NAME_CLAIM),
+                jwt.getSubject(), null, Boolean.TRUE.equals(enabled), version == null ? 0 : version.intValue());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(()->"read");
+        return AUTHORITIES;
     }
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getEmail();
+        return email;
     }
 
     @Override
@@ -47,6 +92,6 @@ public class UserAuthenticated implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return user.isEnabled();
+        return enabled;
     }
 }
@@ -1,26 +1,117 @@
 package portfolio.loginandregisterservice.infra.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.events.UserChangedEvent;
 import portfolio.loginandregisterservice.model.repository.UserRepository;
 
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Loads users for authentication through a bounded, expiring cache of
+ * {@link UserAuthenticated} snapshots keyed by normalized email. Entries are evicted as soon
+ * as a {@link UserChangedEvent} for that user commits. Hit, miss and eviction
+ * counts are published as the {@code userDetails} cache metrics.
+ * <p>
+ * Lookups run read-only, so they go to a read replica when one is configured. A user
+ * who changed within the last {@code datasource.replicas.max-lag} is read from the
+ * primary instead, so a just-activated account or new password is never cached from
+ * a replica that has not caught up yet.
+ */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
 
     private final UserRepository userRepository;
+    private final Cache<String, UserAuthenticated> cache;
+    private final Cache<String, Boolean> recentlyChanged;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transaction;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  @Value("${security.user-details-cache.ttl:PT5M}") Duration ttl,
+                                  @Value("${security.user-details-cache.max-size:10000}") long maxSize,
+                                  @Value("${datasource.replicas.max-lag:PT5S}") Duration replicaMaxLag,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.recentlyChanged = Caffeine.newBuilder()
+                .expireAfterWrite(replicaMaxLag)
+                .maximumSize(maxSize)
+                .build();
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByEmail(username)
+        UserAuthenticated user = cache.get(User.normalizeEmail(username), email -> find(email)
                 .map(UserAuthenticated::new)
-                .orElseThrow(()-> new UsernameNotFoundException("User not found"));
+                .orElse(null));
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found");
+        }
+        return user;
     }
 
+    /**
+     * Called by the authentication provider after a successful login whose stored hash
+     * uses an outdated algorithm or cost, with the password already re-encoded.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        UserAuthenticated updated;
+        try {
+            updated = transaction.execute(status -> userRepository.findByEmail(userDetails.getUsername())
+                    .map(user -> {
+                        user.setPassword(newPassword);
+                        return new UserAuthenticated(userRepository.save(user));
+                    })
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found")));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // the user changed concurrently; the old hash still verifies and is upgraded on a later login
+            log.debug("Skipped upgrading the password hash of {}: {}", userDetails.getUsername(), e.getMessage());
+            return userDetails;
+        }
+        cache.put(User.normalizeEmail(updated.getUsername()), updated);
+        return updated;
+    }
 
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        String email = User.normalizeEmail(event.email());
+        recentlyChanged.put(email, Boolean.TRUE);
+        cache.invalidate(email);
+    }
+
+    private Optional<User> find(String email) {
+        if (recentlyChanged.getIfPresent(email) != null) {
+            return userRepository.findByEmail(email);
+        }
+        return readOnlyTransaction.execute(status -> userRepository.findByEmail(email));
+    }
 }
@@ -0,0 +1,74 @@
+package portfolio.loginandregisterservice.infra.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.event.TransactionalEventListener;
+import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.events.UserChangedEvent;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Optional;
+
+/** Remembers credentials that recently passed a full password check. */
+public class VerifiedCredentialCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, Entry> entries;
+    private final SecretKey key;
+
+    public VerifiedCredentialCache(Duration ttl, long maxSize) {
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+        try {
+            this.key = KeyGenerator.getInstance(HMAC_ALGORITHM).generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Optional<UserDetails> get(String username, String password) {
+        Entry entry = entries.getIfPresent(User.normalizeEmail(username));
+        if (entry == null || !MessageDigest.isEqual(entry.fingerprint(), fingerprint(username, password))) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.details());
+    }
+
+    public void put(String username, String password, UserDetails details) {
+        entries.put(User.normalizeEmail(username), new Entry(fingerprint(username, password), details));
+    }
+
+    public void invalidate(String username) {
+        entries.invalidate(User.normalizeEmail(username));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.email());
+    }
+
+    private byte[] fingerprint(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(byte[] fingerprint, UserDetails details) {
+    }
+}
@@ -0,0 +1,68 @@
+package portfolio.loginandregisterservice.model.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "TB_EMAIL_OUTBOX", indexes =
+        @Index(name = "IX_EMAIL_OUTBOX_STATUS_NEXT_ATTEMPT", columnList = "status, nextAttemptAt"))
+@NoArgsConstructor
+@Getter
+@Setter
+public class EmailOutbox {
+
+    public enum Status {
+        PENDING,
+        SENDING,
+        FAILED
+    }
+
+    @Id
+    @Column(nullable = false)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    // encrypted; cleared once the entry has FAILED
+    @Column(length = 8000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    private int attempts;
+
+    // earliest instant the entry may be picked up again; doubles as the lease while SENDING
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    private String lastError;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+
+    public EmailOutbox(String recipient, String subject, String body) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.status = Status.PENDING;
+        this.attempts = 0;
+        this.createdAt = Instant.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+}
@@ -0,0 +1,53 @@
+package portfolio.loginandregisterservice.model.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "TB_REFRESH_TOKEN", indexes = {
+        @Index(name = "IX_REFRESH_TOKEN_FAMILY_ID", columnList = "familyId"),
+        @Index(name = "IX_REFRESH_TOKEN_USER_ID", columnList = "userId"),
+        @Index(name = "IX_REFRESH_TOKEN_EXPIRES_AT", columnList = "expiresAt")
+})
+@NoArgsConstructor
+@Getter
+@Setter
+public class RefreshToken {
+
+    @Id
+    @Column(nullable = false)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the token handed to the client; the token itself is never stored
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    // every token obtained by rotating the same login shares the family id
+    @Column(nullable = false, length = 36)
+    private String familyId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private int tokenVersion;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    private boolean used;
+
+
+    public RefreshToken(String tokenHash, String familyId, Long userId, int tokenVersion, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.userId = userId;
+        this.tokenVersion = tokenVersion;
+        this.expiresAt = expiresAt;
+        this.used = false;
+    }
+}
@@ -3,19 +3,32 @@ package portfolio.loginandregisterservice.model.entities;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.text.Normalizer;
+import java.util.Locale;
 
 @Entity
-@Table(name = "TB_USERS")
+@Table(name = "TB_USERS", uniqueConstraints =
+        @UniqueConstraint(name = User.EMAIL_UNIQUE_CONSTRAINT, columnNames = "normalizedEmail"))
+// updates only write the columns that changed
+@DynamicUpdate
 @NoArgsConstructor
 @Getter
 @Setter
 public class User {
+
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "UK_USERS_NORMALIZED_EMAIL";
+
     @Id
     @Column(nullable = false)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // a pooled sequence lets Hibernate batch inserts, which IDENTITY rules out
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "TB_USERS_SEQ", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -23,26 +36,53 @@ public class User {
     private String name;
 
     @NotBlank
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false, length = 320)
     @Email(message = "Email should be valid")
     private String email;
 
+    // lookup and uniqueness key; always derived from email, see setEmail
+    @Setter(AccessLevel.NONE)
+    @Column(length = 320)
+    private String normalizedEmail;
+
     @NotBlank
     @Column(nullable = false)
     private String password;
 
     private boolean enabled;
-    @NotBlank
-    private String uniqueToken;
 
+    // bumped whenever issued access tokens must stop being accepted
+    @Column(nullable = false)
+    private int tokenVersion;
+
+    // optimistic lock: an update based on a stale read fails instead of overwriting
+    @Version
+    @Column(nullable = false)
+    private long version;
 
-    public User(String name, String email, String password, String uniqueToken) {
+
+    public User(String name, String email, String password) {
         this.name = name;
-        this.email = email;
+        setEmail(email);
         this.password = password;
-        this.uniqueToken = uniqueToken;
         this.enabled = false;
 
     }
+
+    public void setEmail(String email) {
+        this.email = email;
+        this.normalizedEmail = normalizeEmail(email);
+    }
+
+    /**
+     * Trims, applies NFKC and lowercases, so lookups ignore case and equivalent
+     * Unicode spellings of the same address.
+     */
+    public static String normalizeEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        return Normalizer.normalize(email.strip(), Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
 }
 
@@ -0,0 +1,51 @@
+package portfolio.loginandregisterservice.model.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "TB_USER_TOKENS", indexes = {
+        @Index(name = "IX_USER_TOKENS_USER_ID_PURPOSE", columnList = "userId, purpose"),
+        @Index(name = "IX_USER_TOKENS_EXPIRES_AT", columnList = "expiresAt")
+})
+@NoArgsConstructor
+@Getter
+@Setter
+public class UserToken {
+
+    public enum Purpose {
+        ACTIVATION,
+        PASSWORD_RESET
+    }
+
+    @Id
+    @Column(nullable = false)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the token sent by email; the token itself is never stored
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Purpose purpose;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+
+    public UserToken(String tokenHash, Purpose purpose, Long userId, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.purpose = purpose;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,8 @@
+package portfolio.loginandregisterservice.model.events;
+
+/**
+ * Published whenever a user's credentials, state or existence changes, so that anything cached for that user can be
+ * dropped.
+ */
+public record UserChangedEvent(Long id, String email) {
+}
@@ -0,0 +1,8 @@
+package portfolio.loginandregisterservice.model.events;
+
+/**
+ * Published when access tokens issued to a user below {@code minimumTokenVersion} must no longer be accepted, e.g.
+ * after a password change or account deletion.
+ */
+public record UserTokensRevokedEvent(Long userId, int minimumTokenVersion) {
+}
@@ -0,0 +1,7 @@
+package portfolio.loginandregisterservice.model.records;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenRequestRecord(
+        @NotBlank String refreshToken) {
+}
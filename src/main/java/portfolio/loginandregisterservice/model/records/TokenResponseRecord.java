@@ -0,0 +1,7 @@
+package portfolio.loginandregisterservice.model.records;
+
+public record TokenResponseRecord(
+        String accessToken,
+        String refreshToken,
+        long expiresIn) {
+}
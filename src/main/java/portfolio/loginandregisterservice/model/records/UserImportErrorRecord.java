@@ -0,0 +1,4 @@
+package portfolio.loginandregisterservice.model.records;
+
+public record UserImportErrorRecord(long line, String message) {
+}
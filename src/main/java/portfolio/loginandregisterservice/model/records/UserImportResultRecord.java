@@ -0,0 +1,6 @@
+package portfolio.loginandregisterservice.model.records;
+
+import java.util.List;
+
+public record UserImportResultRecord(long imported, long failed, List<UserImportErrorRecord> errors) {
+}
@@ -0,0 +1,6 @@
+package portfolio.loginandregisterservice.model.records;
+
+import java.util.List;
+
+public record UserPageRecord(List<UserResponseRecord> users, String nextCursor) {
+}
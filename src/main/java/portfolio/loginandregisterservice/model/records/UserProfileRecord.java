@@ -0,0 +1,4 @@
+package portfolio.loginandregisterservice.model.records;
+
+public record UserProfileRecord(Long id, String name, String email, boolean enabled) {
+}
@@ -1,4 +1,4 @@
 package portfolio.loginandregisterservice.model.records;
 
-public record UserRequestRecord(Long id, String name, String email, String password, String uniqueToken) {
+public record UserRequestRecord(Long id, String name, String email, String password, Long version) {
 }
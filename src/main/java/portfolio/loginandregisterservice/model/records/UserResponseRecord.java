@@ -1,4 +1,4 @@
 package portfolio.loginandregisterservice.model.records;
 
-public record UserResponseRecord(Long id, String name, String email, String encryptedPassword, String encryptedUniqueToken) {
+public record UserResponseRecord(Long id, String name, String email, String encryptedPassword, long version) {
 }
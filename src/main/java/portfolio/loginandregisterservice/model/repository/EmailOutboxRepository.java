@@ -0,0 +1,32 @@
+package portfolio.loginandregisterservice.model.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import portfolio.loginandregisterservice.model.entities.EmailOutbox;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    List<EmailOutbox> findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(Collection<EmailOutbox.Status> statuses,
+                                                                            Instant now, Pageable pageable);
+
+    // succeeds only for the node whose read is still current, so each row is claimed once per lease
+    @Transactional
+    @Modifying
+    @Query("update EmailOutbox e set e.status = :sending, e.nextAttemptAt = :leaseUntil, e.version = e.version + 1 " +
+            "where e.id = :id and e.version = :version and e.status in :statuses and e.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("version") long version, @Param("statuses") Collection<EmailOutbox.Status> statuses,
+              @Param("now") Instant now, @Param("sending") EmailOutbox.Status sending, @Param("leaseUntil") Instant leaseUntil);
+
+    @Modifying
+    @Query("delete from EmailOutbox e where e.status = :status and e.createdAt < :cutoff")
+    int deleteByStatusAndCreatedAtBefore(@Param("status") EmailOutbox.Status status, @Param("cutoff") Instant cutoff);
+}
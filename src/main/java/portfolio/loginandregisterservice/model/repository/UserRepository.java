@@ -1,14 +1,58 @@
 package portfolio.loginandregisterservice.model.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.records.UserResponseRecord;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
-    Optional<User> findByUniqueToken(String uniqueToken);
+    // email lookups always go through the normalized column and its unique index
+    @Query("select u from User u where u.normalizedEmail = :normalizedEmail")
+    Optional<User> findByNormalizedEmail(@Param("normalizedEmail") String normalizedEmail);
+
+    default Optional<User> findByEmail(String email) {
+        return findByNormalizedEmail(User.normalizeEmail(email));
+    }
+
+    @Query("select u.tokenVersion from User u where u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    List<User> findByNormalizedEmailIsNullAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("select u.normalizedEmail from User u where u.normalizedEmail in :normalizedEmails")
+    Set<String> findExistingNormalizedEmails(@Param("normalizedEmails") Collection<String> normalizedEmails);
+
+    // read-side projections: select only the response columns, never a managed entity
+    String RESPONSE_PROJECTION = "select new portfolio.loginandregisterservice.model.records.UserResponseRecord("
+            + "u.id, u.name, u.email, u.password, u.version) from User u ";
+
+    @Query(RESPONSE_PROJECTION + "where u.id = :id")
+    Optional<UserResponseRecord> findResponseById(@Param("id") Long id);
+
+    @Query(RESPONSE_PROJECTION + "where u.normalizedEmail = :normalizedEmail")
+    Optional<UserResponseRecord> findResponseByNormalizedEmail(@Param("normalizedEmail") String normalizedEmail);
+
+    default Optional<UserResponseRecord> findResponseByEmail(String email) {
+        return findResponseByNormalizedEmail(User.normalizeEmail(email));
+    }
+
+    @Query(RESPONSE_PROJECTION + "where u.id > :afterId order by u.id")
+    List<UserResponseRecord> findResponsesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(RESPONSE_PROJECTION + "order by u.id")
+    Stream<UserResponseRecord> streamResponses();
 }
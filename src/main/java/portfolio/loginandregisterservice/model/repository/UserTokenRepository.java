@@ -0,0 +1,31 @@
+package portfolio.loginandregisterservice.model.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import portfolio.loginandregisterservice.model.entities.UserToken;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface UserTokenRepository extends JpaRepository<UserToken, Long> {
+    @Query("select t from UserToken t where t.tokenHash = :tokenHash and t.purpose = :purpose")
+    Optional<UserToken> findByTokenHashAndPurpose(@Param("tokenHash") String tokenHash,
+                                                  @Param("purpose") UserToken.Purpose purpose);
+
+    // the row count tells the caller whether it, and nobody else, consumed the token
+    @Modifying
+    @Query("delete from UserToken t where t.id = :id")
+    int deleteByIdReturningCount(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from UserToken t where t.userId = :userId and t.purpose = :purpose")
+    int deleteByUserIdAndPurpose(@Param("userId") Long userId, @Param("purpose") UserToken.Purpose purpose);
+
+    @Modifying
+    @Query("delete from UserToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,39 @@
+package portfolio.loginandregisterservice.model.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Rejects passwords that appear in a breach corpus, using the memory-mapped {@link PasswordBloomFilter} at {@code
+ * security.password.breach-filter}, built with {@link PasswordBloomFilterBuilder}.
+ */
+@Component
+public class BreachedPasswordChecker {
+
+    private static final Logger log = LoggerFactory.getLogger(BreachedPasswordChecker.class);
+
+    private final PasswordBloomFilter filter;
+
+    public BreachedPasswordChecker(@Value("${security.password.breach-filter:}") String location) {
+        if (location == null || location.isBlank()) {
+            this.filter = null;
+            return;
+        }
+        try {
+            this.filter = PasswordBloomFilter.open(Path.of(location));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the breached password filter " + location, e);
+        }
+        log.info("Loaded breached password filter with {} entries from {}", filter.entries(), location);
+    }
+
+    public boolean isBreached(String password) {
+        return filter != null && password != null && filter.mightContain(password);
+    }
+}
@@ -0,0 +1,81 @@
+package portfolio.loginandregisterservice.model.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/** AES-GCM for outbox bodies, which carry activation links and reset passwords. */
+@Component
+public class EmailBodyCipher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailBodyCipher.class);
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey key;
+    private final SecureRandom random = new SecureRandom();
+
+    public EmailBodyCipher(@Value("${mail.outbox.encryption-key:}") String base64Key,
+                           @Value("${mail.outbox.allow-ephemeral-key:false}") boolean allowEphemeralKey) {
+        if (base64Key == null || base64Key.isBlank()) {
+            if (!allowEphemeralKey) {
+                // queued bodies would be unreadable after a restart and on every other node
+                throw new IllegalStateException("Set mail.outbox.encryption-key to a base64 AES key");
+            }
+            log.warn("No mail.outbox.encryption-key set, queued emails will not survive a restart");
+            this.key = generateKey();
+        } else {
+            this.key = new SecretKeySpec(Base64.getDecoder().decode(base64Key.strip()), "AES");
+        }
+    }
+
+    public String encrypt(String body) {
+        try {
+            byte[] iv = new byte[IV_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(body.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(IV_BYTES + encrypted.length)
+                    .put(iv)
+                    .put(encrypted)
+                    .array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt email body", e);
+        }
+    }
+
+    public String decrypt(String stored) {
+        try {
+            byte[] bytes = Base64.getDecoder().decode(stored);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, bytes, 0, IV_BYTES));
+            return new String(cipher.doFinal(bytes, IV_BYTES, bytes.length - IV_BYTES), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException(
+                    "Could not decrypt email body, it was encrypted with another mail.outbox.encryption-key", e);
+        }
+    }
+
+    private static SecretKey generateKey() {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(256);
+            return generator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
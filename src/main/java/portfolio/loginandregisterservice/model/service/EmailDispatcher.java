@@ -0,0 +1,269 @@
+package portfolio.loginandregisterservice.model.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import portfolio.loginandregisterservice.exceptions.MailSendingException;
+import portfolio.loginandregisterservice.model.entities.EmailOutbox;
+import portfolio.loginandregisterservice.model.repository.EmailOutboxRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/** Drains the email outbox in the background. */
+@Service
+public class EmailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+    private static final EnumSet<EmailOutbox.Status> DISPATCHABLE =
+            EnumSet.of(EmailOutbox.Status.PENDING, EmailOutbox.Status.SENDING);
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender emailSender;
+    private final TaskExecutor executor;
+    private final Semaphore slots;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Duration failedRetention;
+    private final EmailBodyCipher cipher;
+
+    public EmailDispatcher(EmailOutboxRepository outboxRepository,
+                           JavaMailSender emailSender,
+                           EmailBodyCipher cipher,
+                           @Qualifier("mailDispatchExecutor") TaskExecutor executor,
+                           @Value("${mail.outbox.concurrency:4}") int concurrency,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                           @Value("${mail.outbox.batch-size:50}") int batchSize,
+                           @Value("${mail.outbox.max-attempts:5}") int maxAttempts,
+                           @Value("${mail.outbox.initial-backoff:PT10S}") Duration initialBackoff,
+                           @Value("${mail.outbox.max-backoff:PT15M}") Duration maxBackoff,
+                           @Value("${mail.outbox.lease:PT2M}") Duration lease,
+                           @Value("${mail.outbox.failed-retention:P7D}") Duration failedRetention) {
+        this.outboxRepository = outboxRepository;
+        this.emailSender = emailSender;
+        this.executor = executor;
+        this.slots = new Semaphore(virtualThreads ? pinningSafeConcurrency(concurrency) : concurrency);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.failedRetention = failedRetention;
+        this.cipher = cipher;
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval:PT0.5S}")
+    public void dispatchPending() {
+        int capacity = slots.availablePermits();
+        if (capacity == 0) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<EmailOutbox> due = outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                DISPATCHABLE, now, PageRequest.of(0, capacity * batchSize));
+
+        for (int from = 0; from < due.size(); from += batchSize) {
+            if (!slots.tryAcquire()) {
+                return;
+            }
+            List<EmailOutbox> batch = claim(due.subList(from, Math.min(from + batchSize, due.size())), now);
+            if (batch.isEmpty()) {
+                slots.release();
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        deliver(batch);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                slots.release();
+                batch.forEach(entry -> {
+                    entry.setStatus(EmailOutbox.Status.PENDING);
+                    entry.setNextAttemptAt(now);
+                });
+                saveAll(batch);
+                return;
+            }
+        }
+    }
+
+    /*
+     * Jakarta Mail's SMTP transport synchronizes on the connection, which pins the carrier
+     * thread for the whole SMTP conversation. The slots are the only limit on concurrent
+     * batches, so capping them keeps one carrier free for request handling. The JDBC calls
+     * around a send pin too on H2, which synchronizes on its session, and fall under the
+     * same cap; the PostgreSQL driver has used locks instead of monitors since 42.6.
+     */
+    private static int pinningSafeConcurrency(int concurrency) {
+        int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                Runtime.getRuntime().availableProcessors());
+        int limit = Math.min(concurrency, Math.max(1, carriers - 1));
+        if (limit < concurrency) {
+            log.warn("Limiting virtual mail dispatch to {} concurrent batches to avoid pinning every carrier thread",
+                    limit);
+        }
+        return limit;
+    }
+
+    private List<EmailOutbox> claim(List<EmailOutbox> entries, Instant now) {
+        // a SENDING entry whose lease expired was abandoned by a crashed node, so it is simply reclaimed
+        Instant leaseUntil = now.plus(lease);
+        List<EmailOutbox> claimed = new ArrayList<>(entries.size());
+        for (EmailOutbox entry : entries) {
+            if (outboxRepository.claim(entry.getId(), entry.getVersion(), DISPATCHABLE, now,
+                    EmailOutbox.Status.SENDING, leaseUntil) == 1) {
+                entry.setStatus(EmailOutbox.Status.SENDING);
+                entry.setNextAttemptAt(leaseUntil);
+                entry.setVersion(entry.getVersion() + 1);
+                claimed.add(entry);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Sends the whole batch through one {@code send(SimpleMailMessage...)} call, which {@link
+     * org.springframework.mail.javamail.JavaMailSenderImpl} serves over a single SMTP connection.
+     */
+    void deliver(List<EmailOutbox> batch) {
+        Map<SimpleMailMessage, EmailOutbox> messages = new IdentityHashMap<>();
+        Instant now = Instant.now();
+        for (EmailOutbox entry : batch) {
+            if (!entry.getNextAttemptAt().isAfter(now)) {
+                // the lease ran out while the batch was queued, so another node may already own the entry
+                continue;
+            }
+            try {
+                messages.put(toMessage(entry), entry);
+            } catch (IllegalStateException e) {
+                // encrypted with a key this process does not have; retrying cannot help
+                entry.setAttempts(maxAttempts - 1);
+                scheduleRetry(entry, new MailSendingException("Could not read email " + entry.getId(), e));
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures = send(messages.keySet().toArray(SimpleMailMessage[]::new));
+
+        List<Long> delivered = new ArrayList<>();
+        messages.forEach((message, entry) -> {
+            Exception failure = failures.get(message);
+            if (failure == null) {
+                delivered.add(entry.getId());
+            } else {
+                scheduleRetry(entry, new MailSendingException("Could not deliver email " + entry.getId(), failure));
+            }
+        });
+        if (!delivered.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(delivered);
+        }
+    }
+
+    private Map<Object, Exception> send(SimpleMailMessage[] messages) {
+        try {
+            emailSender.send(messages);
+            return Map.of();
+        } catch (MailSendException e) {
+            if (!e.getFailedMessages().isEmpty()) {
+                return e.getFailedMessages();
+            }
+            return failAll(messages, e);
+        } catch (MailException e) {
+            // connection or authentication problems reject the batch as a whole
+            return failAll(messages, e);
+        }
+    }
+
+    private static Map<Object, Exception> failAll(SimpleMailMessage[] messages, Exception cause) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        for (SimpleMailMessage message : messages) {
+            failures.put(message, cause);
+        }
+        return failures;
+    }
+
+    private SimpleMailMessage toMessage(EmailOutbox entry) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(entry.getRecipient());
+        message.setSubject(entry.getSubject());
+        message.setText(cipher.decrypt(entry.getBody()));
+        return message;
+    }
+
+    private void scheduleRetry(EmailOutbox entry, MailSendingException e) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(abbreviate(e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+        if (attempts >= maxAttempts) {
+            entry.setStatus(EmailOutbox.Status.FAILED);
+            entry.setBody(null);
+            log.error("Giving up on email {} after {} attempts", entry.getId(), attempts, e);
+        } else {
+            entry.setStatus(EmailOutbox.Status.PENDING);
+            entry.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+            log.warn("Email {} failed on attempt {}, retrying later", entry.getId(), attempts);
+        }
+        try {
+            outboxRepository.save(entry);
+        } catch (OptimisticLockingFailureException ex) {
+            log.warn("Lease on email {} expired during delivery, leaving it to its new owner", entry.getId());
+        }
+    }
+
+    private void saveAll(List<EmailOutbox> entries) {
+        try {
+            outboxRepository.saveAll(entries);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Email batch was reclaimed before it could be released", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.purge-interval:PT1H}")
+    @Transactional
+    public void purgeFailed() {
+        int purged = outboxRepository.deleteByStatusAndCreatedAtBefore(EmailOutbox.Status.FAILED,
+                Instant.now().minus(failedRetention));
+        if (purged > 0) {
+            log.debug("Purged {} failed emails", purged);
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String abbreviate(String message) {
+        if (message == null || message.length() <= 255) {
+            return message;
+        }
+        return message.substring(0, 255);
+    }
+}
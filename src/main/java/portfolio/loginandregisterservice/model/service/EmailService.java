@@ -1,16 +1,24 @@
 package portfolio.loginandregisterservice.model.service;
 
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import portfolio.loginandregisterservice.model.entities.EmailOutbox;
+import portfolio.loginandregisterservice.model.repository.EmailOutboxRepository;
 
+/**
+ * Composes the service emails and stores them in the outbox. Delivery happens
+ * asynchronously in {@link EmailDispatcher}, so callers never wait on SMTP and
+ * an enqueue joins the caller's transaction when there is one.
+ */
 @Service
 public class EmailService {
 
-    private final JavaMailSender emailSender;
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailBodyCipher cipher;
 
-    public EmailService(JavaMailSender emailSender) {
-        this.emailSender = emailSender;
+    public EmailService(EmailOutboxRepository outboxRepository, EmailBodyCipher cipher) {
+        this.outboxRepository = outboxRepository;
+        this.cipher = cipher;
     }
 
     public void sendWelcomeEmail(String email, String name) {
@@ -21,7 +29,7 @@ public class EmailService {
                     + "Welcome to our service! Your account is successfully activated. We are excited to have you on board.\n\n"
                     + "Best regards,\n"
                     + "Your Service Team");
-            emailSender.send(message);
+            enqueue(message);
     }
 
     public void sendActivationEmail(String email, String uniqueToken) {
@@ -33,7 +41,7 @@ public class EmailService {
                     + linkBuilder(uniqueToken,"/activate/") + "\n\n"
                     + "Best regards,\n"
                     + "Your Service Team");
-            emailSender.send(message);
+            enqueue(message);
     }
     public void sendResetPasswordEmailAuth(String email, String uniqueToken) {
         SimpleMailMessage message = new SimpleMailMessage();
@@ -44,7 +52,7 @@ public class EmailService {
                 + linkBuilder(uniqueToken,"/reset/") + "\n\n"
                 + "Best regards,\n"
                 + "Your Service Team");
-        emailSender.send(message);
+        enqueue(message);
     }
 
     public void sendResetPasswordConfirmation(String email, String password) {
@@ -57,10 +65,16 @@ public class EmailService {
                 + "Please ensure to change your password after logging in for security purposes.\n\n"
                 + "Best regards,\n"
                 + "Your Service Team");
-        emailSender.send(message);
+        enqueue(message);
     }
 
 
+    private void enqueue(SimpleMailMessage message) {
+        // bodies hold activation links and passwords, so they are only stored encrypted
+        outboxRepository.save(new EmailOutbox(message.getTo()[0], message.getSubject(),
+                cipher.encrypt(message.getText())));
+    }
+
     private String linkBuilder(String uniqueToken, String endpoint) {
         return "http://localhost:8080"+endpoint+ uniqueToken;
     }
@@ -0,0 +1,118 @@
+package portfolio.loginandregisterservice.model.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fills {@code normalizedEmail} for rows written before the column existed, in batches of {@code
+ * users.email-backfill.batch-size} at startup.
+ */
+@Component
+public class NormalizedEmailBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(NormalizedEmailBackfill.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public NormalizedEmailBackfill(UserRepository userRepository, TransactionTemplate transactionTemplate,
+                                   @Value("${users.email-backfill.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long backfilled = 0;
+        List<Long> skipped = new ArrayList<>();
+        long lastId = 0;
+        List<Long> batch;
+        do {
+            // walks by id, so skipped rows are not read again
+            long afterId = lastId;
+            batch = transactionTemplate.execute(status -> userRepository
+                    .findByNormalizedEmailIsNullAndIdGreaterThanOrderByIdAsc(afterId, Limit.of(batchSize))
+                    .stream().map(User::getId).toList());
+            if (batch.isEmpty()) {
+                break;
+            }
+            backfilled += backfill(batch, skipped);
+            lastId = batch.getLast();
+        } while (batch.size() == batchSize);
+
+        if (backfilled > 0) {
+            log.info("Normalized the email of {} existing users", backfilled);
+        }
+        if (!skipped.isEmpty()) {
+            log.error("Could not normalize the email of {} users whose addresses only differ from another account "
+                    + "by case or Unicode form; they cannot log in until merged manually: ids {}", skipped.size(), skipped);
+        }
+    }
+
+    private int backfill(List<Long> ids, List<Long> skipped) {
+        List<Long> collisions = new ArrayList<>();
+        try {
+            Integer updated = transactionTemplate.execute(status -> {
+                collisions.clear();
+                List<User> users = userRepository.findAllById(ids);
+                Set<String> taken = userRepository.findExistingNormalizedEmails(users.stream()
+                        .map(user -> User.normalizeEmail(user.getEmail()))
+                        .toList());
+                Set<String> seen = new HashSet<>();
+                int count = 0;
+                for (User user : users) {
+                    String normalizedEmail = User.normalizeEmail(user.getEmail());
+                    if (taken.contains(normalizedEmail) || !seen.add(normalizedEmail)) {
+                        collisions.add(user.getId());
+                    } else {
+                        user.setEmail(user.getEmail());
+                        count++;
+                    }
+                }
+                return count;
+            });
+            skipped.addAll(collisions);
+            return updated;
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent write took one of the addresses; settle the batch one row at a time
+            return backfillEach(ids, skipped);
+        }
+    }
+
+    private int backfillEach(List<Long> ids, List<Long> skipped) {
+        int updated = 0;
+        for (Long id : ids) {
+            try {
+                Boolean changed = transactionTemplate.execute(status -> userRepository.findById(id)
+                        .filter(user -> user.getNormalizedEmail() == null)
+                        .map(user -> {
+                            user.setEmail(user.getEmail());
+                            return true;
+                        })
+                        .orElse(false));
+                if (Boolean.TRUE.equals(changed)) {
+                    updated++;
+                }
+            } catch (DataIntegrityViolationException e) {
+                skipped.add(id);
+            }
+        }
+        return updated;
+    }
+}
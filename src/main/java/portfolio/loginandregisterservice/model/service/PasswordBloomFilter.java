@@ -0,0 +1,189 @@
+package portfolio.loginandregisterservice.model.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Bloom filter over the SHA-1 of passwords, kept in a memory-mapped file so the bits live off the heap and are
+ * paged in by the operating system.
+ */
+public final class PasswordBloomFilter {
+
+    private static final int MAGIC = 0x42504246;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private static final ThreadLocal<MessageDigest> SHA1 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final MappedByteBuffer[] segments;
+    private final long bitCount;
+    private final int probeCount;
+    private long entries;
+
+    private PasswordBloomFilter(MappedByteBuffer[] segments, long bitCount, int probeCount, long entries) {
+        this.segments = segments;
+        this.bitCount = bitCount;
+        this.probeCount = probeCount;
+        this.entries = entries;
+    }
+
+    /**
+     * Creates an empty filter at {@code file} sized for {@code expectedEntries} at the given false-positive rate,
+     * replacing any existing file.
+     */
+    public static PasswordBloomFilter create(Path file, long expectedEntries, double falsePositiveRate)
+            throws IOException {
+        if (expectedEntries < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected entries must be positive and the false-positive rate in (0, 1)");
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        bits = Math.max(64, (bits + 63) & ~63L);
+        int probes = Math.max(1, (int) Math.round((double) bits / expectedEntries * ln2));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(bits)
+                    .putInt(probes)
+                    .putInt(0)
+                    .putLong(0)
+                    .flip();
+            channel.write(header, 0);
+            // sparse until bits are set
+            channel.write(ByteBuffer.allocate(1), HEADER_BYTES + bits / 8 - 1);
+            return new PasswordBloomFilter(map(channel, FileChannel.MapMode.READ_WRITE), bits, probes, 0);
+        }
+    }
+
+    /**
+     * Maps an existing filter read-only.
+     */
+    public static PasswordBloomFilter open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // read the whole header
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+                throw new IOException(file + " is not a password Bloom filter");
+            }
+            long bits = header.getLong();
+            int probes = header.getInt();
+            header.getInt();
+            long entries = header.getLong();
+            if (bits <= 0 || bits % 64 != 0 || probes < 1 || channel.size() < HEADER_BYTES + bits / 8) {
+                throw new IOException(file + " is truncated or corrupt");
+            }
+            return new PasswordBloomFilter(map(channel, FileChannel.MapMode.READ_ONLY), bits, probes, entries);
+        }
+    }
+
+    public boolean mightContain(String password) {
+        return mightContainSha1(sha1(password));
+    }
+
+    /**
+     * Checks a raw 20-byte SHA-1 digest, as found in breach corpora.
+     */
+    public boolean mightContainSha1(byte[] sha1) {
+        long h1 = readLong(sha1, 0);
+        long h2 = readLong(sha1, 8) | 1;
+        long combined = h1;
+        for (int i = 0; i < probeCount; i++) {
+            long bit = Long.remainderUnsigned(combined, bitCount);
+            if ((word(bit) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += h2;
+        }
+        return true;
+    }
+
+    /**
+     * Adds a raw 20-byte SHA-1 digest. Only valid on a filter returned by {@link #create}.
+     */
+    public void addSha1(byte[] sha1) {
+        long h1 = readLong(sha1, 0);
+        long h2 = readLong(sha1, 8) | 1;
+        long combined = h1;
+        for (int i = 0; i < probeCount; i++) {
+            long bit = Long.remainderUnsigned(combined, bitCount);
+            long offset = HEADER_BYTES + (bit >>> 6) * Long.BYTES;
+            MappedByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+            int position = (int) (offset & SEGMENT_MASK);
+            segment.putLong(position, segment.getLong(position) | (1L << bit));
+            combined += h2;
+        }
+        entries++;
+    }
+
+    /**
+     * Records the entry count and writes the mapped pages back to the file.
+     */
+    public void force() {
+        segments[0].putLong(24, entries);
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int probeCount() {
+        return probeCount;
+    }
+
+    public long entries() {
+        return entries;
+    }
+
+    static byte[] sha1(String password) {
+        return SHA1.get().digest(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long word(long bit) {
+        long offset = HEADER_BYTES + (bit >>> 6) * Long.BYTES;
+        // the header and segment sizes are multiples of 8, so a word never spans two segments
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getLong((int) (offset & SEGMENT_MASK));
+    }
+
+    private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode) throws IOException {
+        long size = channel.size();
+        int count = (int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(mode, start, Math.min(1L << SEGMENT_SHIFT, size - start));
+        }
+        return segments;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,58 @@
+package portfolio.loginandregisterservice.model.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+
+/**
+ * Builds the file read by {@link BreachedPasswordChecker} from a list of SHA-1 password hashes, one per line,
+ * either bare or in the Have I Been Pwned {@code HASH:count} format.
+ */
+public final class PasswordBloomFilterBuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordBloomFilterBuilder.class);
+    private static final int SHA1_HEX_LENGTH = 40;
+
+    private PasswordBloomFilterBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: PasswordBloomFilterBuilder <sha1-hashes.txt> <output.bloom> [false-positive-rate]");
+            System.exit(2);
+        }
+        double falsePositiveRate = args.length == 3 ? Double.parseDouble(args[2]) : 0.01;
+        build(Path.of(args[0]), Path.of(args[1]), falsePositiveRate);
+    }
+
+    public static PasswordBloomFilter build(Path input, Path output, double falsePositiveRate) throws IOException {
+        long expected;
+        try (var lines = Files.lines(input, StandardCharsets.US_ASCII)) {
+            expected = lines.filter(line -> line.length() >= SHA1_HEX_LENGTH).count();
+        }
+        if (expected == 0) {
+            throw new IllegalArgumentException("No SHA-1 hashes found in " + input);
+        }
+
+        PasswordBloomFilter filter = PasswordBloomFilter.create(output, expected, falsePositiveRate);
+        HexFormat hex = HexFormat.of();
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() >= SHA1_HEX_LENGTH) {
+                    filter.addSha1(hex.parseHex(line, 0, SHA1_HEX_LENGTH));
+                }
+            }
+        }
+        filter.force();
+        log.info("Wrote {} hashes to {}: {} MiB, {} probes per lookup", filter.entries(), output,
+                (filter.bitCount() / 8) >> 20, filter.probeCount());
+        return filter;
+    }
+}
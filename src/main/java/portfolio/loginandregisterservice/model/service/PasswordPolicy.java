@@ -0,0 +1,157 @@
+package portfolio.loginandregisterservice.model.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Password rules from {@code security.password.policy.*}: length bounds, required character classes and an optional
+ * list of banned passwords, compared ignoring case.
+ */
+@Component
+public class PasswordPolicy {
+
+    private static final int UPPER = 1;
+    private static final int LOWER = 1 << 1;
+    private static final int DIGIT = 1 << 2;
+    private static final int SPECIAL = 1 << 3;
+
+    static final String BANNED_MESSAGE = "This password is too common, choose a less predictable one.";
+
+    private final int minLength;
+    private final int maxLength;
+    private final int required;
+    // bit c set when ASCII character c counts as special; c < 64 in the low word
+    private final long specialLow;
+    private final long specialHigh;
+    private final NavigableSet<String> banned;
+    private final String requirementsMessage;
+
+    public PasswordPolicy(@Value("${security.password.policy.min-length:8}") int minLength,
+                          @Value("${security.password.policy.max-length:20}") int maxLength,
+                          @Value("${security.password.policy.require-uppercase:true}") boolean requireUppercase,
+                          @Value("${security.password.policy.require-lowercase:true}") boolean requireLowercase,
+                          @Value("${security.password.policy.require-digit:true}") boolean requireDigit,
+                          @Value("${security.password.policy.require-special:true}") boolean requireSpecial,
+                          @Value("${security.password.policy.special-characters:!@#$%^&*()-_+=<>?/{}[]}") String specialCharacters,
+                          @Value("${security.password.policy.banned-list:}") Resource bannedList) {
+        if (minLength < 1 || maxLength < minLength) {
+            throw new IllegalArgumentException("Invalid password length bounds " + minLength + ".." + maxLength);
+        }
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.required = (requireUppercase ? UPPER : 0) | (requireLowercase ? LOWER : 0)
+                | (requireDigit ? DIGIT : 0) | (requireSpecial ? SPECIAL : 0);
+
+        long low = 0;
+        long high = 0;
+        for (char c : specialCharacters.toCharArray()) {
+            if (c >= 128 || Character.isLetterOrDigit(c)) {
+                throw new IllegalArgumentException("Special password characters must be ASCII symbols, got '" + c + "'");
+            }
+            if (c < 64) {
+                low |= 1L << c;
+            } else {
+                high |= 1L << (c - 64);
+            }
+        }
+        this.specialLow = low;
+        this.specialHigh = high;
+        this.banned = Collections.unmodifiableNavigableSet(loadBanned(bannedList));
+        this.requirementsMessage = requirementsMessage();
+    }
+
+    /**
+     * Returns why {@code password} is not acceptable, or {@code null} when it is.
+     */
+    public String check(String password) {
+        if (password == null || password.length() < minLength || password.length() > maxLength) {
+            return requirementsMessage;
+        }
+        int found = 0;
+        for (int i = 0; i < password.length() && (found & required) != required; i++) {
+            found |= classOf(password.charAt(i));
+        }
+        if ((found & required) != required) {
+            return requirementsMessage;
+        }
+        if (banned.contains(password)) {
+            return BANNED_MESSAGE;
+        }
+        return null;
+    }
+
+    public boolean isValid(String password) {
+        return check(password) == null;
+    }
+
+    private int classOf(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return UPPER;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return LOWER;
+        }
+        if (c >= '0' && c <= '9') {
+            return DIGIT;
+        }
+        if (c < 64) {
+            return (specialLow & (1L << c)) != 0 ? SPECIAL : 0;
+        }
+        if (c < 128) {
+            return (specialHigh & (1L << (c - 64))) != 0 ? SPECIAL : 0;
+        }
+        return 0;
+    }
+
+    private String requirementsMessage() {
+        List<String> classes = new ArrayList<>(4);
+        if ((required & UPPER) != 0) {
+            classes.add("one uppercase letter");
+        }
+        if ((required & LOWER) != 0) {
+            classes.add("one lowercase letter");
+        }
+        if ((required & SPECIAL) != 0) {
+            classes.add("one special character");
+        }
+        if ((required & DIGIT) != 0) {
+            classes.add("one number");
+        }
+        String length = "be between " + minLength + " and " + maxLength + " characters in length.";
+        if (classes.isEmpty()) {
+            return "A valid password must " + length;
+        }
+        return "A valid password must provide at least " + String.join(", ", classes) + " and " + length;
+    }
+
+    private static NavigableSet<String> loadBanned(Resource bannedList) {
+        NavigableSet<String> banned = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        if (bannedList == null) {
+            return banned;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(bannedList.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    banned.add(line.strip());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read banned passwords from " + bannedList, e);
+        }
+        return banned;
+    }
+}
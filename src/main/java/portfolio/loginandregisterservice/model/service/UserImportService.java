@@ -0,0 +1,283 @@
+package portfolio.loginandregisterservice.model.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import portfolio.loginandregisterservice.exceptions.PasswordHashingRejectedException;
+import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.entities.UserToken;
+import portfolio.loginandregisterservice.model.records.UserCreateRecord;
+import portfolio.loginandregisterservice.model.records.UserImportErrorRecord;
+import portfolio.loginandregisterservice.model.records.UserImportResultRecord;
+import portfolio.loginandregisterservice.model.repository.UserRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Imports users in bulk from a CSV ({@code name,email,password}) or NDJSON body. Imported users must
+ * activate their account as after {@code /register}, unless the import is marked as already activated.
+ */
+@Service
+public class UserImportService {
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final String CSV_HEADER = "name,email,password";
+    private static final int HASH_ATTEMPTS = 5;
+
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final UserTokenService userTokenService;
+    private final EmailService emailService;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final int hashParallelism;
+
+    public UserImportService(UserRepository userRepository, UserService userService,
+                             UserTokenService userTokenService, EmailService emailService,
+                             PasswordEncoder passwordEncoder, Validator validator,
+                             TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                             @Value("${users.import.batch-size:500}") int batchSize,
+                             @Value("${users.import.max-reported-errors:1000}") int maxReportedErrors,
+                             @Value("${users.import.hash-parallelism:0}") int hashParallelism) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.userTokenService = userTokenService;
+        this.emailService = emailService;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        // by default half the cores, which leaves the rest of the hashing pool to logins
+        this.hashParallelism = hashParallelism > 0
+                ? hashParallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    public UserImportResultRecord importUsers(Reader body, Format format, boolean activated) throws IOException {
+        Progress progress = new Progress();
+        List<Row> chunk = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(body);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (format == Format.CSV && lineNumber == 1
+                    && CSV_HEADER.equalsIgnoreCase(line.replace(" ", "")))) {
+                continue;
+            }
+            try {
+                chunk.add(new Row(lineNumber, format == Format.CSV ? parseCsv(line) : parseJson(line)));
+            } catch (IllegalArgumentException e) {
+                progress.fail(lineNumber, e.getMessage());
+            }
+            if (chunk.size() == batchSize) {
+                importChunk(chunk, activated, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, activated, progress);
+        }
+        return new UserImportResultRecord(progress.imported, progress.failed, progress.errors);
+    }
+
+    private void importChunk(List<Row> rows, boolean activated, Progress progress) {
+        Set<String> existing = userRepository.findExistingNormalizedEmails(rows.stream()
+                .map(row -> User.normalizeEmail(row.data().email()))
+                .filter(Objects::nonNull)
+                .toList());
+        Set<String> seen = new HashSet<>();
+        List<Row> valid = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            String error = validate(row.data(), existing, seen);
+            if (error != null) {
+                progress.fail(row.line(), error);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        Map<Row, User> hashed = hash(valid, progress);
+        if (hashed.isEmpty()) {
+            return;
+        }
+        List<User> users = List.copyOf(hashed.values());
+        users.forEach(user -> user.setEnabled(activated));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<User> saved = userRepository.saveAll(users);
+                if (!activated) {
+                    for (User user : saved) {
+                        emailService.sendActivationEmail(user.getEmail(),
+                                userTokenService.issue(user.getId(), UserToken.Purpose.ACTIVATION));
+                    }
+                }
+            });
+            progress.imported += users.size();
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent registration took one of the emails; the whole chunk was rolled back
+            hashed.keySet().forEach(row -> progress.fail(row.line(), "Conflicting data: " + e.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    private String validate(UserCreateRecord data, Set<String> existing, Set<String> seen) {
+        User candidate = new User(data.name(), data.email(), data.password());
+        Set<ConstraintViolation<User>> violations = validator.validate(candidate);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<User> violation = violations.iterator().next();
+            return violation.getPropertyPath() + ": " + violation.getMessage();
+        }
+        String passwordViolation = userService.checkPassword(data.password());
+        if (passwordViolation != null) {
+            return passwordViolation;
+        }
+        String normalizedEmail = User.normalizeEmail(data.email());
+        if (existing.contains(normalizedEmail) || !seen.add(normalizedEmail)) {
+            return "Email already exists.";
+        }
+        return null;
+    }
+
+    /*
+     * The encoder hashes on its own bounded pool; each virtual thread only waits for one
+     * result, so no shared pool is blocked. A row whose hash is still rejected after
+     * HASH_ATTEMPTS is reported instead of aborting the import.
+     */
+    private Map<Row, User> hash(List<Row> rows, Progress progress) {
+        Semaphore permits = new Semaphore(hashParallelism);
+        List<Future<String>> hashes = new ArrayList<>(rows.size());
+        try (ExecutorService hashers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Row row : rows) {
+                permits.acquireUninterruptibly();
+                hashes.add(hashers.submit(() -> {
+                    try {
+                        return encode(row.data().password());
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        Map<Row, User> users = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            Future<String> hash = hashes.get(i);
+            if (hash.state() == Future.State.SUCCESS) {
+                users.put(row, new User(row.data().name(), row.data().email(), hash.resultNow()));
+            } else if (hash.exceptionNow() instanceof PasswordHashingRejectedException e) {
+                progress.fail(row.line(), e.getMessage() + " Retry this row later.");
+            } else {
+                throw new IllegalStateException("Could not hash the password on line " + row.line(), hash.exceptionNow());
+            }
+        }
+        return users;
+    }
+
+    private String encode(String password) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return passwordEncoder.encode(password);
+            } catch (PasswordHashingRejectedException e) {
+                if (attempt == HASH_ATTEMPTS) {
+                    throw e;
+                }
+                Thread.sleep(Duration.ofSeconds(e.getRetryAfterSeconds()));
+            }
+        }
+    }
+
+    private UserCreateRecord parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, UserCreateRecord.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Splits one CSV record, honouring double-quoted fields with {@code ""} escapes.
+     */
+    private static UserCreateRecord parseCsv(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field.");
+        }
+        fields.add(field.toString());
+        if (fields.size() != 3) {
+            throw new IllegalArgumentException("Expected 3 fields (name,email,password) but found " + fields.size() + ".");
+        }
+        return new UserCreateRecord(fields.get(0).trim(), fields.get(1).trim(), fields.get(2));
+    }
+
+    private record Row(long line, UserCreateRecord data) {
+    }
+
+    private class Progress {
+
+        private long imported;
+        private long failed;
+        private final List<UserImportErrorRecord> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new UserImportErrorRecord(line, message));
+            }
+        }
+    }
+}
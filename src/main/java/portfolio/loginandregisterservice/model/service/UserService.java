@@ -1,105 +1,230 @@
 package portfolio.loginandregisterservice.model.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.entities.UserToken;
+import portfolio.loginandregisterservice.model.events.UserChangedEvent;
+import portfolio.loginandregisterservice.model.events.UserTokensRevokedEvent;
+import portfolio.loginandregisterservice.model.records.UserResponseRecord;
 import portfolio.loginandregisterservice.model.repository.UserRepository;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
 
+    static final String BREACHED_PASSWORD_MESSAGE =
+            "This password has appeared in a data breach, choose a different one.";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserTokenService userTokenService;
+    private final PasswordPolicy passwordPolicy;
+    private final BreachedPasswordChecker breachedPasswordChecker;
 
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, EmailService emailService) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, EmailService emailService,
+                       ApplicationEventPublisher eventPublisher, UserTokenService userTokenService,
+                       PasswordPolicy passwordPolicy, BreachedPasswordChecker breachedPasswordChecker) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.emailService = emailService;
+        this.eventPublisher = eventPublisher;
+        this.userTokenService = userTokenService;
+        this.passwordPolicy = passwordPolicy;
+        this.breachedPasswordChecker = breachedPasswordChecker;
     }
 
 
+    @Transactional
     public User create(User user) {
-        if (userRepository.findByEmail(user.getEmail()).isPresent()) {
-            throw new DataIntegrityViolationException("Email already exists.");
-        }
-        if (!validatePassword(user.getPassword())) {
-            throw new IllegalArgumentException("A valid password must provide at least one uppercase"
-                    + " letter, one lowercase letter, one special character, one number "
-                    + "and be between 8 and 20 characters in length.");
+        String passwordViolation = checkPassword(user.getPassword());
+        if (passwordViolation != null) {
+            throw new IllegalArgumentException(passwordViolation);
         }
-        String activationToken = UUID.randomUUID().toString();
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        user.setUniqueToken(activationToken);
-        return userRepository.save(user);
+        User saved;
+        try {
+            // the unique index is the only email check, so two concurrent registrations cannot both pass it
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConflict(e)) {
+                throw new DataIntegrityViolationException("Email already exists.", e);
+            }
+            throw e;
+        }
+        String activationToken = userTokenService.issue(saved.getId(), UserToken.Purpose.ACTIVATION);
+        emailService.sendActivationEmail(saved.getEmail(), activationToken);
+        return saved;
     }
 
+    private static boolean isEmailConflict(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toUpperCase(Locale.ROOT).contains(User.EMAIL_UNIQUE_CONSTRAINT);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
 
     }
 
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
 
+    @Transactional(readOnly = true)
     public List<User> findAll() {
         return userRepository.findAll();
     }
 
+    /*
+     * The read methods below return projections straight from the query. Read-only
+     * transactions switch Hibernate's flush mode to manual, so nothing is dirty-checked.
+     */
+
+    @Transactional(readOnly = true)
+    public Optional<UserResponseRecord> findResponseById(Long id) {
+        return userRepository.findResponseById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<UserResponseRecord> findResponseByEmail(String email) {
+        return userRepository.findResponseByEmail(email);
+    }
+
+    /**
+     * Up to {@code size} users with an id above {@code afterId}, in id order. Seeking on
+     * the primary key keeps every page as cheap as the first one.
+     */
+    @Transactional(readOnly = true)
+    public List<UserResponseRecord> findPage(Long afterId, int size) {
+        return userRepository.findResponsesAfter(afterId == null ? 0L : afterId, Limit.of(size));
+    }
+
+    /**
+     * Hands every user to {@code consumer} in id order. Rows are projected, not loaded as
+     * entities, so memory stays flat however large the table is.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<UserResponseRecord> consumer) {
+        try (Stream<UserResponseRecord> users = userRepository.streamResponses()) {
+            users.forEach(consumer);
+        }
+    }
+
+    /**
+     * Applies the non-blank fields of {@code data} to the stored user. Only changed
+     * columns are written, and the password is neither compared nor re-hashed when it
+     * is absent; a new password that breaks the policy is rejected as in
+     * {@link #create}. When the version of {@code data} is not the stored one, or a
+     * concurrent update of the same user commits first, the update fails with an
+     * {@link org.springframework.dao.OptimisticLockingFailureException}.
+     */
+    @Transactional
     public User update(User data) {
+        return update(data, true);
+    }
+
+    /**
+     * As {@link #update(User)}, but with {@code checkVersion} false the version of
+     * {@code data} is ignored and the update applies to whatever is stored.
+     */
+    @Transactional
+    public User update(User data, boolean checkVersion) {
+        if (isPresent(data.getPassword())) {
+            String passwordViolation = checkPassword(data.getPassword());
+            if (passwordViolation != null) {
+                throw new IllegalArgumentException(passwordViolation);
+            }
+        }
         Optional<User> userOptional = userRepository.findById(data.getId());
         return userOptional.map(user -> {
-            if (!Objects.equals(user.getName(), data.getName()) && !data.getName().isBlank()) {
+            if (checkVersion && user.getVersion() != data.getVersion()) {
+                throw new ObjectOptimisticLockingFailureException(User.class, user.getId());
+            }
+            String previousEmail = user.getEmail();
+            boolean credentialsChanged = false;
+            if (isPresent(data.getName()) && !Objects.equals(user.getName(), data.getName())) {
                 user.setName(data.getName());
             }
 
-            if (!Objects.equals(user.getEmail(), data.getEmail()) && !data.getEmail().isBlank()) {
+            if (isPresent(data.getEmail()) && !Objects.equals(user.getEmail(), data.getEmail())) {
                 user.setEmail(data.getEmail());
+                credentialsChanged = true;
             }
 
-            if (!data.getPassword().isBlank()
-                    && !passwordEncoder.matches(data.getPassword(), user.getPassword())
-                    && validatePassword(data.getPassword())) {
+            if (isPresent(data.getPassword())
+                    && !passwordEncoder.matches(data.getPassword(), user.getPassword())) {
                 user.setPassword(passwordEncoder.encode(data.getPassword()));
+                credentialsChanged = true;
             }
 
-            return userRepository.save(user);
+            if (credentialsChanged) {
+                user.setTokenVersion(user.getTokenVersion() + 1);
+            }
+            User saved = userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), previousEmail));
+            if (credentialsChanged) {
+                eventPublisher.publishEvent(new UserTokensRevokedEvent(saved.getId(), saved.getTokenVersion()));
+            }
+            return saved;
         }).orElseThrow(EntityNotFoundException::new);
     }
 
+    private static boolean isPresent(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    // refresh, activation and reset tokens go with the user through ON DELETE CASCADE
+    @Transactional
     public void deleteById(Long id) {
-        userRepository.deleteById(id);
+        userRepository.findById(id).ifPresent(user -> {
+            userRepository.delete(user);
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getEmail()));
+            eventPublisher.publishEvent(new UserTokensRevokedEvent(user.getId(), Integer.MAX_VALUE));
+        });
     }
 
+    @Transactional
     public void forgetPassword(String email) {
         userRepository.findByEmail(email)
                 .ifPresentOrElse(
-                        user -> emailService.sendResetPasswordEmailAuth(user.getEmail(), user.getUniqueToken()),
+                        user -> emailService.sendResetPasswordEmailAuth(user.getEmail(),
+                                userTokenService.issue(user.getId(), UserToken.Purpose.PASSWORD_RESET)),
                         () -> {
                             throw new IllegalArgumentException("User not found for email: " + email);
                         }
                 );
     }
 
+    @Transactional
     public String[] resetPassword(String token) {
-        Optional<User> userOptional = userRepository.findByUniqueToken(token);
+        Optional<User> userOptional = userTokenService.consume(token, UserToken.Purpose.PASSWORD_RESET)
+                .flatMap(userRepository::findById);
         if (userOptional.isPresent()) {
             String newPassword = generateRandomPassword(8);
             User user = userOptional.get();
             user.setPassword(passwordEncoder.encode(newPassword));
-            user.setUniqueToken(UUID.randomUUID().toString());
+            user.setTokenVersion(user.getTokenVersion() + 1);
             userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getEmail()));
+            eventPublisher.publishEvent(new UserTokensRevokedEvent(user.getId(), user.getTokenVersion()));
             return new String[]{user.getEmail(), newPassword};
         }
         return null;
@@ -116,23 +241,15 @@ public class UserService {
         return newPassword.toString();
     }
 
-    private boolean validatePassword(String password) {
-        if (password.length() < 8 || password.length() > 20) {
-            return false;
+    /**
+     * Returns why {@code password} does not meet the password policy or is known to be
+     * breached, or {@code null} when it is acceptable.
+     */
+    String checkPassword(String password) {
+        String violation = passwordPolicy.check(password);
+        if (violation == null && breachedPasswordChecker.isBreached(password)) {
+            return BREACHED_PASSWORD_MESSAGE;
         }
-        // Verifica se a senha contém pelo menos uma letra maiúscula, uma minúscula e um
-        // caractere especial
-        Pattern upperCase = Pattern.compile("[A-Z]");
-        Pattern lowerCase = Pattern.compile("[a-z]");
-        Pattern specialChar = Pattern.compile("[!@#$%^&*()-_+=<>?/{}\\[\\]]");
-        Pattern numChar = Pattern.compile("[0-9]");
-
-        Matcher upperCaseMatcher = upperCase.matcher(password);
-        Matcher lowerCaseMatcher = lowerCase.matcher(password);
-        Matcher specialCharMatcher = specialChar.matcher(password);
-        Matcher numCharMatcher = numChar.matcher(password);
-
-        return upperCaseMatcher.find() && lowerCaseMatcher.find()
-                && specialCharMatcher.find() && numCharMatcher.find();
+        return violation;
     }
 }
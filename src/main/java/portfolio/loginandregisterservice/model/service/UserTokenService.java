@@ -0,0 +1,85 @@
+package portfolio.loginandregisterservice.model.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import portfolio.loginandregisterservice.model.entities.UserToken;
+import portfolio.loginandregisterservice.model.repository.UserTokenRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/** Single-use activation and password-reset tokens. */
+@Service
+public class UserTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserTokenService.class);
+    private static final int TOKEN_BYTES = 32;
+
+    private final UserTokenRepository userTokenRepository;
+    private final Duration activationTtl;
+    private final Duration passwordResetTtl;
+    private final SecureRandom random = new SecureRandom();
+
+    public UserTokenService(UserTokenRepository userTokenRepository,
+                            @Value("${users.tokens.activation-ttl:P7D}") Duration activationTtl,
+                            @Value("${users.tokens.password-reset-ttl:PT1H}") Duration passwordResetTtl) {
+        this.userTokenRepository = userTokenRepository;
+        this.activationTtl = activationTtl;
+        this.passwordResetTtl = passwordResetTtl;
+    }
+
+    @Transactional
+    public String issue(Long userId, UserToken.Purpose purpose) {
+        userTokenRepository.deleteByUserIdAndPurpose(userId, purpose);
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Duration ttl = purpose == UserToken.Purpose.ACTIVATION ? activationTtl : passwordResetTtl;
+        userTokenRepository.save(new UserToken(hash(token), purpose, userId, Instant.now().plus(ttl)));
+        return token;
+    }
+
+    /**
+     * Redeems {@code token} and returns the id of the user it was issued to, or empty when it is unknown, expired,
+     * meant for another purpose or already redeemed.
+     */
+    @Transactional
+    public Optional<Long> consume(String token, UserToken.Purpose purpose) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        return userTokenRepository.findByTokenHashAndPurpose(hash(token), purpose)
+                .filter(userToken -> userTokenRepository.deleteByIdReturningCount(userToken.getId()) == 1)
+                .filter(userToken -> userToken.getExpiresAt().isAfter(Instant.now()))
+                .map(UserToken::getUserId);
+    }
+
+    @Scheduled(fixedDelayString = "${users.tokens.purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = userTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired user tokens", purged);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+-- Baseline schema. Written to run unchanged on H2 and PostgreSQL; Hibernate only
+-- validates it (spring.jpa.hibernate.ddl-auto=validate).
+
+-- Users: ids come from a pooled sequence (allocationSize 50) so inserts can be batched.
+-- The primary key serves findById and the id-keyset paging of /all; the unique
+-- index on normalized_email serves every lookup by email and enforces uniqueness.
+create sequence tb_users_seq start with 1 increment by 50;
+
+create table tb_users (
+    id               bigint       not null,
+    name             varchar(255) not null,
+    email            varchar(320) not null,
+    normalized_email varchar(320),
+    password         varchar(255) not null,
+    enabled          boolean      not null,
+    token_version    integer      not null,
+    constraint pk_users primary key (id),
+    constraint uk_users_normalized_email unique (normalized_email)
+);
+
+-- Email outbox: the dispatcher polls by status and due time.
+create table tb_email_outbox (
+    id              bigint generated by default as identity,
+    recipient       varchar(255)                not null,
+    subject         varchar(255)                not null,
+    body            varchar(4000)               not null,
+    status          varchar(255)                not null,
+    attempts        integer                     not null,
+    next_attempt_at timestamp(6) with time zone not null,
+    last_error      varchar(255),
+    created_at      timestamp(6) with time zone not null,
+    constraint pk_email_outbox primary key (id),
+    constraint ck_email_outbox_status check (status in ('PENDING', 'SENDING', 'FAILED'))
+);
+
+create index ix_email_outbox_status_next_attempt on tb_email_outbox (status, next_attempt_at);
+
+-- Refresh tokens: looked up by hash; revoked by family or user; purged by expiry.
+create table tb_refresh_token (
+    id            bigint generated by default as identity,
+    token_hash    varchar(64)                 not null,
+    family_id     varchar(36)                 not null,
+    user_id       bigint                      not null,
+    token_version integer                     not null,
+    expires_at    timestamp(6) with time zone not null,
+    used          boolean                     not null,
+    constraint pk_refresh_token primary key (id),
+    constraint uk_refresh_token_token_hash unique (token_hash)
+);
+
+create index ix_refresh_token_family_id on tb_refresh_token (family_id);
+create index ix_refresh_token_user_id on tb_refresh_token (user_id);
+create index ix_refresh_token_expires_at on tb_refresh_token (expires_at);
+
+-- Activation and password-reset tokens: looked up by hash; replaced per user and
+-- purpose; purged by expiry.
+create table tb_user_tokens (
+    id         bigint generated by default as identity,
+    token_hash varchar(64)                 not null,
+    purpose    varchar(20)                 not null,
+    user_id    bigint                      not null,
+    expires_at timestamp(6) with time zone not null,
+    constraint pk_user_tokens primary key (id),
+    constraint uk_user_tokens_token_hash unique (token_hash),
+    constraint ck_user_tokens_purpose check (purpose in ('ACTIVATION', 'PASSWORD_RESET'))
+);
+
+create index ix_user_tokens_user_id_purpose on tb_user_tokens (user_id, purpose);
+create index ix_user_tokens_expires_at on tb_user_tokens (expires_at);
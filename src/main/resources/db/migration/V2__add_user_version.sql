@@ -0,0 +1,2 @@
+-- Optimistic lock column for TB_USERS; existing rows start at version 0.
+alter table tb_users add column version bigint default 0 not null;
@@ -0,0 +1,3 @@
+-- Outbox bodies are stored encrypted and cleared once an entry has failed.
+alter table tb_email_outbox alter column body set data type varchar(8000);
+alter table tb_email_outbox alter column body drop not null;
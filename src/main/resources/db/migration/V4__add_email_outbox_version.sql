@@ -0,0 +1,2 @@
+-- Version column used to claim outbox rows atomically; existing rows start at version 0.
+alter table tb_email_outbox add column version bigint default 0 not null;
@@ -0,0 +1,9 @@
+-- Tokens belong to their user: deleting the user deletes them. Rows left behind by
+-- users deleted before this migration are removed first.
+delete from tb_refresh_token where user_id not in (select id from tb_users);
+delete from tb_user_tokens where user_id not in (select id from tb_users);
+
+alter table tb_refresh_token add constraint fk_refresh_token_user
+    foreign key (user_id) references tb_users (id) on delete cascade;
+alter table tb_user_tokens add constraint fk_user_tokens_user
+    foreign key (user_id) references tb_users (id) on delete cascade;
@@ -0,0 +1,63 @@
+package portfolio.loginandregisterservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import portfolio.loginandregisterservice.infra.security.CachingAuthenticationProvider;
+import portfolio.loginandregisterservice.infra.security.VerifiedCredentialCache;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// repeated httpBasic logins with the same credentials, bcrypt at the OWASP minimum strength
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CredentialCacheBenchmark {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String PASSWORD = "Valid@Pass1";
+
+    private AuthenticationProvider uncached;
+    private AuthenticationProvider cached;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(10);
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(
+                User.withUsername(EMAIL).password(encoder.encode(PASSWORD)).roles("USER").build());
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(encoder);
+        provider.setUserDetailsService(users);
+        uncached = provider;
+        cached = new CachingAuthenticationProvider(provider, new VerifiedCredentialCache(Duration.ofMinutes(1), 10_000));
+    }
+
+    @Benchmark
+    public Authentication uncached() {
+        return uncached.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, PASSWORD));
+    }
+
+    @Benchmark
+    public Authentication cached() {
+        return cached.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, PASSWORD));
+    }
+}
@@ -0,0 +1,81 @@
+package portfolio.loginandregisterservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.repository.UserRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// case-insensitive lookup of a random user: the normalized_email unique index against lower(email)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class EmailLookupBenchmark {
+
+    private static final String INDEXED = "select id from tb_users where normalized_email = ?";
+    private static final String LOWERED = "select id from tb_users where lower(email) = ?";
+
+    @Param({"100000", "1000000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbc;
+    private UserRepository userRepository;
+
+    @Setup
+    public void setUp() {
+        context = ServiceContext.start();
+        jdbc = context.getBean(JdbcTemplate.class);
+        ServiceContext.seedUsers(jdbc, users, "unused");
+        userRepository = context.getBean(UserRepository.class);
+        // H2 and PostgreSQL both name the index they pick in the plan
+        String plan = String.join(" ", jdbc.queryForList("explain " + INDEXED, String.class, "user1@example.com"));
+        if (!plan.toUpperCase().contains("UK_USERS_NORMALIZED_EMAIL")) {
+            throw new IllegalStateException("Lookup by normalized email does not use its index: " + plan);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> repository() {
+        return userRepository.findByEmail(randomEmail());
+    }
+
+    @Benchmark
+    public List<Long> normalizedEmail() {
+        return jdbc.queryForList(INDEXED, Long.class, User.normalizeEmail(randomEmail()));
+    }
+
+    @Benchmark
+    public List<Long> lowerEmail() {
+        return jdbc.queryForList(LOWERED, Long.class, randomEmail().toLowerCase());
+    }
+
+    // cased differently from the stored address
+    private String randomEmail() {
+        return "User" + ThreadLocalRandom.current().nextInt(1, users + 1) + "@Example.com";
+    }
+}
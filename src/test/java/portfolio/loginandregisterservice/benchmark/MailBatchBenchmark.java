@@ -0,0 +1,78 @@
+package portfolio.loginandregisterservice.benchmark;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.concurrent.TimeUnit;
+
+// a local GreenMail SMTP server; per-message connections are what the dispatcher did before batching
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MailBatchBenchmark {
+
+    @Param({"10", "50"})
+    private int batchSize;
+
+    private GreenMail smtp;
+    private JavaMailSenderImpl sender;
+    private SimpleMailMessage[] messages;
+
+    @Setup
+    public void setUp() {
+        smtp = new GreenMail(new ServerSetup(0, "127.0.0.1", ServerSetup.PROTOCOL_SMTP));
+        smtp.start();
+        sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(smtp.getSmtp().getPort());
+        messages = new SimpleMailMessage[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom("no-reply@example.com");
+            message.setTo("user" + i + "@example.com");
+            message.setSubject("Activate your account");
+            message.setText("http://localhost:8080/activate?token=" + i);
+            messages[i] = message;
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void purge() throws Exception {
+        smtp.purgeEmailFromAllMailboxes();
+    }
+
+    @TearDown
+    public void tearDown() {
+        smtp.stop();
+    }
+
+    @Benchmark
+    public void sendOneByOne() {
+        for (SimpleMailMessage message : messages) {
+            sender.send(message);
+        }
+    }
+
+    @Benchmark
+    public void sendBatch() {
+        sender.send(messages);
+    }
+}
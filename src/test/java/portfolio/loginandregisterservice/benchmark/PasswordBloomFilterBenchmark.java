@@ -0,0 +1,73 @@
+package portfolio.loginandregisterservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import portfolio.loginandregisterservice.model.service.PasswordBloomFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordBloomFilterBenchmark {
+
+    @Param({"1000000", "20000000"})
+    private long entries;
+
+    private Path file;
+    private PasswordBloomFilter filter;
+    private String[] present;
+    private String[] absent;
+
+    @Setup
+    public void setUp() throws Exception {
+        file = Files.createTempFile("passwords", ".bloom");
+        PasswordBloomFilter writer = PasswordBloomFilter.create(file, entries, 0.01);
+        MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+        for (long i = 0; i < entries; i++) {
+            writer.addSha1(sha1.digest(("breached-" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+        writer.force();
+        filter = PasswordBloomFilter.open(file);
+
+        present = new String[1024];
+        absent = new String[1024];
+        for (int i = 0; i < present.length; i++) {
+            present[i] = "breached-" + ThreadLocalRandom.current().nextLong(entries);
+            absent[i] = "Fresh@Pass" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public boolean breached() {
+        return filter.mightContain(present[ThreadLocalRandom.current().nextInt(present.length)]);
+    }
+
+    @Benchmark
+    public boolean notBreached() {
+        return filter.mightContain(absent[ThreadLocalRandom.current().nextInt(absent.length)]);
+    }
+}
@@ -0,0 +1,53 @@
+package portfolio.loginandregisterservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import portfolio.loginandregisterservice.model.service.PasswordPolicy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordPolicyBenchmark {
+
+    @Param({"Valid@Pass1", "alllowercase", "NoSpecial123"})
+    private String password;
+
+    private PasswordPolicy policy;
+
+    @Setup
+    public void setUp() {
+        policy = new PasswordPolicy(8, 20, true, true, true, true, "!@#$%^&*()-_+=<>?/{}[]", null);
+    }
+
+    @Benchmark
+    public boolean policy() {
+        return policy.isValid(password);
+    }
+
+    // the check UserService ran before PasswordPolicy, patterns compiled on every call
+    @Benchmark
+    public boolean regex() {
+        if (password.length() < 8 || password.length() > 20) {
+            return false;
+        }
+        return Pattern.compile("[A-Z]").matcher(password).find()
+                && Pattern.compile("[a-z]").matcher(password).find()
+                && Pattern.compile("[!@#$%^&*()-_+=<>?/{}\\[\\]]").matcher(password).find()
+                && Pattern.compile("[0-9]").matcher(password).find();
+    }
+}
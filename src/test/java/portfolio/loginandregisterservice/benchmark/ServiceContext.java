@@ -0,0 +1,68 @@
+package portfolio.loginandregisterservice.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import portfolio.loginandregisterservice.LoginAndRegisterServiceApplication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Boots the whole service for the benchmarks that go through Spring, on an in-memory database of its own. With
+ * {@code -jvmArgsAppend -Dbenchmark.profile=postgres} it runs on the PostgreSQL profile instead, connecting through
+ * its DB_* environment variables; the benchmarks' tables are emptied at startup there.
+ */
+final class ServiceContext {
+
+    private static final int SEED_BATCH = 10_000;
+
+    private ServiceContext() {
+    }
+
+    /** Properties are passed as command-line arguments, so they override application.properties. */
+    static ConfigurableApplicationContext start(String... properties) {
+        String profile = System.getProperty("benchmark.profile");
+        Stream<String> database = profile == null
+                ? Stream.of("spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime()
+                        + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+                : Stream.of("spring.profiles.active=" + profile);
+        Stream<String> defaults = Stream.of("server.port=0",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                // nothing is sent anywhere
+                "mail.outbox.poll-interval=PT1H",
+                "mail.outbox.allow-ephemeral-key=true");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LoginAndRegisterServiceApplication.class)
+                .run(Stream.of(database, defaults, Stream.of(properties))
+                        .flatMap(p -> p)
+                        .map(p -> "--" + p)
+                        .toArray(String[]::new));
+        if (profile != null) {
+            // a server database outlives the fork, and every benchmark seeds its own rows
+            context.getBean(JdbcTemplate.class).execute("truncate table tb_user_tokens, tb_refresh_token,"
+                    + " tb_email_outbox, tb_users");
+        }
+        return context;
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    /** Inserts enabled users 1..count sharing one password hash, and moves the id sequence past them. */
+    static void seedUsers(JdbcTemplate jdbc, int count, String passwordHash) {
+        List<Object[]> rows = new ArrayList<>(SEED_BATCH);
+        for (long id = 1; id <= count; id++) {
+            String email = "user" + id + "@example.com";
+            rows.add(new Object[]{id, "user" + id, email, email, passwordHash});
+            if (rows.size() == SEED_BATCH || id == count) {
+                jdbc.batchUpdate("insert into tb_users (id, name, email, normalized_email, password, enabled,"
+                        + " token_version, version) values (?, ?, ?, ?, ?, true, 0, 0)", rows);
+                rows.clear();
+            }
+        }
+        jdbc.execute("alter sequence tb_users_seq restart with " + (count + 51));
+    }
+}
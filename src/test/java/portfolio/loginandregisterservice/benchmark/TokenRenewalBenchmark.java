@@ -0,0 +1,75 @@
+package portfolio.loginandregisterservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import portfolio.loginandregisterservice.infra.security.JwtService;
+import portfolio.loginandregisterservice.infra.security.RefreshTokenService;
+import portfolio.loginandregisterservice.infra.security.UserDetailsServiceImpl;
+
+import java.util.concurrent.TimeUnit;
+
+// what a long-lived client pays per renewal: its password again, or one refresh token redemption.
+// The password path skips the credential cache, whose one-minute TTL an hourly renewal never hits.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenRenewalBenchmark {
+
+    private static final String EMAIL = "user1@example.com";
+    private static final String PASSWORD = "Valid@Pass1";
+
+    private ConfigurableApplicationContext context;
+    private DaoAuthenticationProvider passwordLogin;
+    private JwtService jwtService;
+    private RefreshTokenService refreshTokenService;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        context = ServiceContext.start("security.password.bcrypt.strength=10");
+        PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+        ServiceContext.seedUsers(context.getBean(JdbcTemplate.class), 1, passwordEncoder.encode(PASSWORD));
+        passwordLogin = new DaoAuthenticationProvider(passwordEncoder);
+        passwordLogin.setUserDetailsService(context.getBean(UserDetailsServiceImpl.class));
+        jwtService = context.getBean(JwtService.class);
+        refreshTokenService = context.getBean(RefreshTokenService.class);
+        refreshToken = refreshTokenService.issue(passwordLogin.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, PASSWORD))).refreshToken();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String password() {
+        Authentication authentication = passwordLogin.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, PASSWORD));
+        return jwtService.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String refresh() {
+        refreshToken = refreshTokenService.refresh(refreshToken).refreshToken();
+        return refreshToken;
+    }
+}
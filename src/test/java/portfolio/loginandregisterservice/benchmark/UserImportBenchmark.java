@@ -0,0 +1,71 @@
+package portfolio.loginandregisterservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import portfolio.loginandregisterservice.model.records.UserImportResultRecord;
+import portfolio.loginandregisterservice.model.service.UserImportService;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+// scores are users/s; every operation imports a CSV of new users through the whole chunk pipeline
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserImportBenchmark {
+
+    private static final int ROWS = 100;
+
+    @Param({"4", "10"})
+    private int bcryptStrength;
+
+    @Param({"true", "false"})
+    private boolean activated;
+
+    private ConfigurableApplicationContext context;
+    private UserImportService userImportService;
+    private long next;
+
+    @Setup
+    public void setUp() {
+        context = ServiceContext.start("security.password.bcrypt.strength=" + bcryptStrength);
+        userImportService = context.getBean(UserImportService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public UserImportResultRecord importCsv() throws IOException {
+        StringBuilder csv = new StringBuilder("name,email,password\n");
+        for (int i = 0; i < ROWS; i++) {
+            long n = next++;
+            csv.append("user").append(n).append(",user").append(n).append("@example.com,Valid@Pass1\n");
+        }
+        UserImportResultRecord result = userImportService.importUsers(new StringReader(csv.toString()),
+                UserImportService.Format.CSV, activated);
+        if (result.imported() != ROWS) {
+            throw new IllegalStateException("Imported " + result.imported() + " of " + ROWS + " users");
+        }
+        return result;
+    }
+}
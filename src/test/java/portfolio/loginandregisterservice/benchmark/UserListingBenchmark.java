@@ -0,0 +1,79 @@
+package portfolio.loginandregisterservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import portfolio.loginandregisterservice.model.records.UserResponseRecord;
+import portfolio.loginandregisterservice.model.service.UserService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// reads every user once per operation; run with -prof gc for the allocation per listing
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class UserListingBenchmark {
+
+    private static final int PAGE_SIZE = 500;
+
+    @Param({"100000", "1000000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        context = ServiceContext.start();
+        ServiceContext.seedUsers(context.getBean(JdbcTemplate.class), users, "unused");
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /** What /all did before paging: every entity loaded, then copied into a list of records. */
+    @Benchmark
+    public List<UserResponseRecord> entityList() {
+        return userService.findAll().stream()
+                .map(user -> new UserResponseRecord(user.getId(), user.getName(), user.getEmail(),
+                        user.getPassword(), user.getVersion()))
+                .toList();
+    }
+
+    @Benchmark
+    public void keysetPages(Blackhole blackhole) {
+        Long after = null;
+        List<UserResponseRecord> page;
+        do {
+            page = userService.findPage(after, PAGE_SIZE);
+            blackhole.consume(page);
+            if (!page.isEmpty()) {
+                after = page.getLast().id();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) {
+        userService.streamAll(blackhole::consume);
+    }
+}
@@ -0,0 +1,83 @@
+package portfolio.loginandregisterservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.records.UserResponseRecord;
+import portfolio.loginandregisterservice.model.service.UserService;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// single-user reads behind /{id} and /findByEmail; run with -prof gc for the allocation per read
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserReadBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        context = ServiceContext.start();
+        ServiceContext.seedUsers(context.getBean(JdbcTemplate.class), USERS, "unused");
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /** The path before projections: a managed entity, copied into the response record. */
+    @Benchmark
+    public Optional<UserResponseRecord> entityById() {
+        return userService.findById(randomId()).map(UserReadBenchmark::toResponse);
+    }
+
+    @Benchmark
+    public Optional<UserResponseRecord> projectionById() {
+        return userService.findResponseById(randomId());
+    }
+
+    @Benchmark
+    public Optional<UserResponseRecord> entityByEmail() {
+        return userService.findByEmail(randomEmail()).map(UserReadBenchmark::toResponse);
+    }
+
+    @Benchmark
+    public Optional<UserResponseRecord> projectionByEmail() {
+        return userService.findResponseByEmail(randomEmail());
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, USERS + 1);
+    }
+
+    private static String randomEmail() {
+        return "user" + randomId() + "@example.com";
+    }
+
+    private static UserResponseRecord toResponse(User user) {
+        return new UserResponseRecord(user.getId(), user.getName(), user.getEmail(), user.getPassword(),
+                user.getVersion());
+    }
+}
@@ -0,0 +1,98 @@
+package portfolio.loginandregisterservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import portfolio.loginandregisterservice.model.entities.UserToken;
+import portfolio.loginandregisterservice.model.repository.UserTokenRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// token lookup for /activate and /reset. The old path is rebuilt here as an unindexed unique_token
+// column on tb_users; 10M users needs -p users=10000000 -jvmArgsAppend -Xmx8g
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class UserTokenLookupBenchmark {
+
+    private static final int SEED_BATCH = 10_000;
+
+    @Param({"100000", "1000000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbc;
+    private UserTokenRepository userTokenRepository;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        context = ServiceContext.start();
+        jdbc = context.getBean(JdbcTemplate.class);
+        ServiceContext.seedUsers(jdbc, users, "unused");
+        userTokenRepository = context.getBean(UserTokenRepository.class);
+
+        jdbc.execute("alter table tb_users add column if not exists unique_token varchar(255)");
+        jdbc.execute("update tb_users set unique_token = 'token-' || id");
+        Timestamp expiresAt = Timestamp.from(Instant.now().plus(7, ChronoUnit.DAYS));
+        List<Object[]> rows = new ArrayList<>(SEED_BATCH);
+        for (long id = 1; id <= users; id++) {
+            rows.add(new Object[]{hash("token-" + id), id, expiresAt});
+            if (rows.size() == SEED_BATCH || id == users) {
+                jdbc.batchUpdate("insert into tb_user_tokens (token_hash, purpose, user_id, expires_at)"
+                        + " values (?, 'ACTIVATION', ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /** What findByUniqueToken did: a scan of tb_users for the plain token. */
+    @Benchmark
+    public List<Long> uniqueTokenColumn() {
+        return jdbc.queryForList("select id from tb_users where unique_token = ?", Long.class, randomToken());
+    }
+
+    @Benchmark
+    public Optional<UserToken> hashedTokenTable() throws NoSuchAlgorithmException {
+        return userTokenRepository.findByTokenHashAndPurpose(hash(randomToken()), UserToken.Purpose.ACTIVATION);
+    }
+
+    private String randomToken() {
+        return "token-" + ThreadLocalRandom.current().nextInt(1, users + 1);
+    }
+
+    // as UserTokenService stores it
+    private static String hash(String token) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+}
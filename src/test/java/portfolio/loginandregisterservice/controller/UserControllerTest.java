@@ -8,22 +8,34 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.records.UserResponseRecord;
 import portfolio.loginandregisterservice.model.service.EmailService;
+import portfolio.loginandregisterservice.model.service.UserImportService;
 import portfolio.loginandregisterservice.model.service.UserService;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static portfolio.loginandregisterservice.common.UserConstants.*;
 
@@ -39,6 +51,8 @@ class UserControllerTest {
     //emailService is necessary in UserService
     @MockBean
     private EmailService emailService;
+    @MockBean
+    private UserImportService userImportService;
 
     @AfterEach
     public void afterEach() {
@@ -86,7 +100,7 @@ class UserControllerTest {
 
     @Test
     public void getUser_byExistingId_returnsUser() throws Exception {
-        when(userService.findById(1L)).thenReturn(Optional.of(USER));
+        when(userService.findResponseById(1L)).thenReturn(Optional.of(response(USER)));
 
         mockMvc.perform(get("/1")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -94,8 +108,7 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.id").value(USER.getId()))
                 .andExpect(jsonPath("$.name").value(USER.getName()))
                 .andExpect(jsonPath("$.email").value(USER.getEmail()))
-                .andExpect(jsonPath("$.encryptedPassword").isNotEmpty())
-                .andExpect(jsonPath("$.encryptedUniqueToken").isNotEmpty());
+                .andExpect(jsonPath("$.encryptedPassword").isNotEmpty());
 
 
     }
@@ -111,7 +124,7 @@ class UserControllerTest {
 
     @Test
     public void getUser_byExistingEmail_returnsUser() throws Exception {
-        when(userService.findByEmail(USER.getEmail())).thenReturn(Optional.of(USER));
+        when(userService.findResponseByEmail(USER.getEmail())).thenReturn(Optional.of(response(USER)));
 
         mockMvc.perform(get("/findByEmail")
                         .param("email", USER.getEmail())
@@ -120,8 +133,7 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.id").value(USER.getId()))
                 .andExpect(jsonPath("$.name").value(USER.getName()))
                 .andExpect(jsonPath("$.email").value(USER.getEmail()))
-                .andExpect(jsonPath("$.encryptedPassword").isNotEmpty())
-                .andExpect(jsonPath("$.encryptedUniqueToken").isNotEmpty());
+                .andExpect(jsonPath("$.encryptedPassword").isNotEmpty());
     }
 
     @Test
@@ -145,7 +157,7 @@ class UserControllerTest {
     @Test
     public void findByEmail_EmailNotFound_returnsNotFound() throws Exception {
         // Arrange
-        when(userService.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(userService.findResponseByEmail(anyString())).thenReturn(Optional.empty());
 
         // Act & Assert
         mockMvc.perform(get("/findByEmail")
@@ -154,6 +166,62 @@ class UserControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void findAll_withFullPage_returnsNextCursor() throws Exception {
+        List<UserResponseRecord> users = List.of(responseWithId(1L), responseWithId(2L), responseWithId(3L));
+        when(userService.findPage(null, 3)).thenReturn(users);
+
+        String body = mockMvc.perform(get("/all").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(2))
+                .andExpect(jsonPath("$.users[1].id").value(2))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+
+        when(userService.findPage(2L, 3)).thenReturn(List.of(responseWithId(3L)));
+        mockMvc.perform(get("/all").param("size", "2")
+                        .param("after", objectMapper.readTree(body).get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].id").value(3))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void findAll_withInvalidCursor_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/all").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void findAll_acceptingNdjson_streamsOneUserPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserResponseRecord> consumer = invocation.getArgument(0);
+            consumer.accept(responseWithId(1L));
+            consumer.accept(responseWithId(2L));
+            return null;
+        }).when(userService).streamAll(any());
+
+        MvcResult result = mockMvc.perform(get("/all").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.lines().map(line -> line.substring(0, line.indexOf(','))))
+                .containsExactly("{\"id\":1", "{\"id\":2");
+    }
+
+    private static UserResponseRecord responseWithId(Long id) {
+        return new UserResponseRecord(id, "user" + id, "user" + id + "@email.com", "Password@1", 0);
+    }
+
+    private static UserResponseRecord response(User user) {
+        return new UserResponseRecord(user.getId(), user.getName(), user.getEmail(), user.getPassword(),
+                user.getVersion());
+    }
+
     @Test
     public void updateUser_withValidData_returnsUser() throws Exception {
         User updatedUser = USER;
@@ -165,14 +233,12 @@ class UserControllerTest {
         mockMvc.perform(MockMvcRequestBuilders.put("/update")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"id\":1,\"name\":\"updatedName\",\"email\":\""
-                                + USER.getEmail() + "\",\"password\":\"" + USER.getPassword() + "\",\"uniqueToken\":\""
-                                + USER.getUniqueToken() + "\"}"))
+                                + USER.getEmail() + "\",\"password\":\"" + USER.getPassword() + "\",\"version\":0}"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(1))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.name").value(USER.getName()))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.email").value(USER.getEmail()))
-                .andExpect(MockMvcResultMatchers.jsonPath("$.encryptedPassword").isNotEmpty())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.encryptedUniqueToken").isNotEmpty());
+                .andExpect(MockMvcResultMatchers.jsonPath("$.encryptedPassword").isNotEmpty());
     }
 
     @Test
@@ -180,14 +246,28 @@ class UserControllerTest {
         mockMvc.perform(MockMvcRequestBuilders.put("/update")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"id\":1,\"name\":\"" + USER.getName() + "\",\"email\":\""
-                                + USER.getEmail() + "\",\"password\":\"newpassword\",\"uniqueToken\":\""
-                                + USER.getUniqueToken() + "\"}"))
+                                + USER.getEmail() + "\",\"password\":\"newpassword\"}")
+                        .header(HttpHeaders.IF_MATCH, "\"0\""))
                 .andExpect(MockMvcResultMatchers.status().isInternalServerError());
     }
 
+    @Test
+    public void updateUser_withoutVersion_updatesLastWriteWins() throws Exception {
+        User updatedUser = new User("updatedName", "email@email.com", "Password@1");
+        updatedUser.setId(1L);
+        Mockito.when(userService.update(any(User.class), eq(false))).thenReturn(updatedUser);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":1,\"name\":\"updatedName\"}"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        Mockito.verify(userService).update(any(User.class), eq(false));
+    }
+
     @Test
     public void resetPassword_withValidToken_returnsIsOk() throws Exception {
-        String token = USER.getUniqueToken();
+        String token = "resetToken";
         String email = USER.getEmail();
         String newPassword = "newPassword";
         String[] info = {email, newPassword};
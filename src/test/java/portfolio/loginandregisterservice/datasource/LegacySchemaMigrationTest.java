@@ -0,0 +1,63 @@
+package portfolio.loginandregisterservice.datasource;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import portfolio.loginandregisterservice.infra.datasource.LegacySchemaMigration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LegacySchemaMigrationTest {
+
+    private final LegacySchemaMigration migration = new LegacySchemaMigration();
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:legacy-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void migrate_withSchemaFromDdlAutoUpdate_keepsItsUsers() {
+        // the table Hibernate generated for the original User entity
+        jdbc.execute("create table tb_users (id bigint generated by default as identity primary key,"
+                + " name varchar(255) not null, email varchar(255) not null unique, password varchar(255) not null,"
+                + " enabled boolean not null, unique_token varchar(255))");
+        jdbc.update("insert into tb_users (id, name, email, password, enabled, unique_token)"
+                + " values (7, 'legacy', 'Legacy@Email.com', 'hash', true, 'token')");
+
+        migration.migrate(flyway());
+
+        assertThat(jdbc.queryForMap("select name, email, normalized_email, password, enabled, token_version, version"
+                + " from tb_users where id = 7"))
+                .containsEntry("NAME", "legacy")
+                .containsEntry("EMAIL", "Legacy@Email.com")
+                .containsEntry("NORMALIZED_EMAIL", null)
+                .containsEntry("ENABLED", true)
+                .containsEntry("TOKEN_VERSION", 0);
+        assertThat(jdbc.queryForObject("select next value for tb_users_seq", Long.class)).isGreaterThan(7 + 50);
+        assertThat(jdbc.queryForObject("select count(*) from information_schema.tables"
+                + " where lower(table_name) = 'tb_users_legacy'", Integer.class)).isZero();
+    }
+
+    @Test
+    void migrate_withEmptyDatabase_onlyRunsMigrations() {
+        migration.migrate(flyway());
+
+        assertThat(jdbc.queryForObject("select count(*) from tb_users", Integer.class)).isZero();
+    }
+
+    private Flyway flyway() {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
+}
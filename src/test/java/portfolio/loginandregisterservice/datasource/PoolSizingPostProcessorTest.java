@@ -0,0 +1,31 @@
+package portfolio.loginandregisterservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import portfolio.loginandregisterservice.infra.datasource.PoolSizingPostProcessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PoolSizingPostProcessorTest {
+
+    private final PoolSizingPostProcessor postProcessor = new PoolSizingPostProcessor(2, 8);
+
+    @Test
+    void postProcess_withoutConfiguredSize_derivesItFromCores() {
+        HikariDataSource pool = new HikariDataSource();
+
+        postProcessor.postProcessBeforeInitialization(pool, "dataSource");
+
+        assertThat(pool.getMaximumPoolSize()).isEqualTo(17);
+    }
+
+    @Test
+    void postProcess_withConfiguredSize_keepsIt() {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setMaximumPoolSize(40);
+
+        postProcessor.postProcessBeforeInitialization(pool, "dataSource");
+
+        assertThat(pool.getMaximumPoolSize()).isEqualTo(40);
+    }
+}
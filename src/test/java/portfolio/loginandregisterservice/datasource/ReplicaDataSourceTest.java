@@ -0,0 +1,77 @@
+package portfolio.loginandregisterservice.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import portfolio.loginandregisterservice.infra.datasource.ReplicaDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaDataSourceTest {
+
+    private final DataSource primary = database("primary");
+    private final DataSource replica = database("replica");
+    // nothing listens on port 1, so connecting fails straight away
+    private final DataSource unreachable = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/mem:gone");
+
+    @BeforeEach
+    void setUp() {
+        for (Map.Entry<String, DataSource> db : Map.of("primary", primary, "replica", replica).entrySet()) {
+            JdbcTemplate jdbc = new JdbcTemplate(db.getValue());
+            jdbc.execute("create table if not exists tb_origin (name varchar(20))");
+            jdbc.update("delete from tb_origin");
+            jdbc.update("insert into tb_origin values (?)", db.getKey());
+        }
+    }
+
+    @Test
+    void readOnlyTransactions_goToReplica_andWritesToPrimary() {
+        ReplicaDataSource replicas = replicas(Map.of("replica", replica));
+
+        assertThat(originOf(replicas, true)).isEqualTo("replica");
+        assertThat(originOf(replicas, false)).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransactions_whenReplicaIsDown_fallBackToPrimary() {
+        Map<String, DataSource> pool = new LinkedHashMap<>();
+        pool.put("down", unreachable);
+        pool.put("replica", replica);
+        ReplicaDataSource replicas = replicas(pool);
+
+        // the first read starts at the unreachable replica and moves on to the next one
+        assertThat(originOf(replicas, true)).isEqualTo("replica");
+        assertThat(replicas.healthyReplicas()).isEqualTo(1);
+
+        ReplicaDataSource onlyDown = replicas(Map.of("down", unreachable));
+        onlyDown.checkHealth();
+        assertThat(onlyDown.healthyReplicas()).isZero();
+        assertThat(originOf(onlyDown, true)).isEqualTo("primary");
+    }
+
+    private String originOf(ReplicaDataSource replicas, boolean readOnly) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(replicas);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                new JdbcTemplate(routing).queryForObject("select name from tb_origin", String.class));
+    }
+
+    private ReplicaDataSource replicas(Map<String, DataSource> pool) {
+        return new ReplicaDataSource(primary, pool, Duration.ofSeconds(1));
+    }
+
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -6,10 +6,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.records.UserResponseRecord;
 import portfolio.loginandregisterservice.model.repository.UserRepository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -43,8 +48,9 @@ public class UserRepositoryTest {
 
     @Test
     public void createUser_withInvalidData_throwsException() {
-        assertThatThrownBy(() -> userRepository.save(EMPTY_USER)).isInstanceOf(RuntimeException.class);
-        assertThatThrownBy(() -> userRepository.save(INVALID_USER)).isInstanceOf(RuntimeException.class);
+        // sequence ids defer the insert to the flush, which is where validation and constraints apply
+        assertThatThrownBy(() -> userRepository.saveAndFlush(EMPTY_USER)).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> userRepository.saveAndFlush(INVALID_USER)).isInstanceOf(RuntimeException.class);
 
     }
 
@@ -55,7 +61,7 @@ public class UserRepositoryTest {
         testEntityManager.detach(duplicatedUser);
         duplicatedUser.setId(null);
 
-        assertThatThrownBy(() -> userRepository.save(duplicatedUser)).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> userRepository.saveAndFlush(duplicatedUser)).isInstanceOf(RuntimeException.class);
 
 
     }
@@ -90,16 +96,58 @@ public class UserRepositoryTest {
         assertThat(sud).isEmpty();
     }
 
+
     @Test
-    public void getUser_byExistingUniqueToken_returnsUser(){
-        User user = testEntityManager.persistFlushFind(USER);
-        Optional<User> sud = userRepository.findByUniqueToken(user.getUniqueToken());
-        assertThat(sud).isNotEmpty();
+    public void findByEmail_withDifferentCaseAndSpacing_returnsUser() {
+        User user = persistUsers(1).getFirst();
+
+        Optional<User> sut = userRepository.findByEmail("  USER1@Email.COM ");
+
+        assertThat(sut).map(User::getId).contains(user.getId());
+    }
+
+    @Test
+    public void createUser_withEmailDifferingOnlyInCase_throwsException() {
+        persistUsers(1);
+
+        User variant = new User("other", "User1@Email.com", "Password@1");
+
+        assertThatThrownBy(() -> userRepository.saveAndFlush(variant)).isInstanceOf(RuntimeException.class);
     }
+
     @Test
-    public void getUser_byUnexistingUniqueToken_returnsEmpty(){
-        Optional<User> sud = userRepository.findByUniqueToken(USER.getUniqueToken());
-        assertThat(sud).isEmpty();
+    public void findResponsesAfter_withLimit_returnsNextUsersInIdOrder() {
+        List<User> saved = persistUsers(3);
+
+        List<UserResponseRecord> sut = userRepository.findResponsesAfter(saved.get(0).getId(), Limit.of(1));
+
+        assertThat(sut).extracting(UserResponseRecord::id).containsExactly(saved.get(1).getId());
+    }
+
+    @Test
+    public void findResponseByEmail_withExistingEmail_returnsProjection() {
+        User user = persistUsers(1).getFirst();
+        testEntityManager.clear();
+
+        Optional<UserResponseRecord> sut = userRepository.findResponseByEmail(user.getEmail());
+
+        assertThat(sut).contains(new UserResponseRecord(user.getId(), user.getName(), user.getEmail(),
+                user.getPassword(), user.getVersion()));
+    }
+
+    @Test
+    public void streamResponses_returnsEveryUserInIdOrder() {
+        List<Long> ids = persistUsers(3).stream().map(User::getId).toList();
+
+        try (Stream<UserResponseRecord> sut = userRepository.streamResponses()) {
+            assertThat(sut.map(UserResponseRecord::id)).containsExactlyElementsOf(ids);
+        }
     }
 
-}
\ No newline at end of file
+    private List<User> persistUsers(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> new User("user" + i, "user" + i + "@email.com", "Password@1"))
+                .map(testEntityManager::persistFlushFind)
+                .toList();
+    }
+}
@@ -0,0 +1,64 @@
+package portfolio.loginandregisterservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import portfolio.loginandregisterservice.infra.security.AdaptivePasswordEncoderFactory;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptivePasswordEncoderFactoryTest {
+
+    private static final String PASSWORD = "Password@1";
+
+    @Test
+    void create_withLegacyBcryptHash_matchesAndRequestsUpgrade() {
+        PasswordEncoder encoder = factory("pbkdf2").create();
+        String legacy = new BCryptPasswordEncoder(4).encode(PASSWORD);
+
+        assertThat(encoder.matches(PASSWORD, legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+    }
+
+    @Test
+    void create_withPbkdf2_roundTripsWithoutUpgrade() {
+        PasswordEncoder encoder = factory("pbkdf2").create();
+        String encoded = encoder.encode(PASSWORD);
+
+        assertThat(encoded).startsWith("{pbkdf2}1000$");
+        assertThat(encoder.matches(PASSWORD, encoded)).isTrue();
+        assertThat(encoder.matches("wrong", encoded)).isFalse();
+        assertThat(encoder.upgradeEncoding(encoded)).isFalse();
+    }
+
+    @Test
+    void create_whenCostIsRaised_requestsUpgradeOfOlderHashes() {
+        String encoded = factory("bcrypt").create().encode(PASSWORD);
+        PasswordEncoder stronger = new AdaptivePasswordEncoderFactory("bcrypt", Duration.ofMillis(1),
+                5, 1024, 1, 1000).create();
+
+        assertThat(stronger.matches(PASSWORD, encoded)).isTrue();
+        assertThat(stronger.upgradeEncoding(encoded)).isTrue();
+    }
+
+    @Test
+    void create_withArgon2_roundTrips() {
+        PasswordEncoder encoder = factory("argon2").create();
+        String encoded = encoder.encode(PASSWORD);
+
+        assertThat(encoded).startsWith("{argon2}$argon2id$");
+        assertThat(encoder.matches(PASSWORD, encoded)).isTrue();
+    }
+
+    @Test
+    void create_withUnknownAlgorithm_throwsException() {
+        assertThatThrownBy(() -> factory("md5").create()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AdaptivePasswordEncoderFactory factory(String algorithm) {
+        return new AdaptivePasswordEncoderFactory(algorithm, Duration.ofMillis(1), 4, 1024, 1, 1000);
+    }
+}
@@ -0,0 +1,225 @@
+package portfolio.loginandregisterservice.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JWSObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import portfolio.loginandregisterservice.infra.security.UserDetailsServiceImpl;
+import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.entities.UserToken;
+import portfolio.loginandregisterservice.model.records.RefreshTokenRequestRecord;
+import portfolio.loginandregisterservice.model.records.TokenResponseRecord;
+import portfolio.loginandregisterservice.model.repository.UserRepository;
+import portfolio.loginandregisterservice.model.service.UserService;
+import portfolio.loginandregisterservice.model.service.UserTokenService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthenticationFlowTest {
+
+    private static final String EMAIL = "flow@email.com";
+    private static final String PASSWORD = "Password@1";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @SpyBean
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserTokenService userTokenService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @SpyBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("flow", EMAIL, passwordEncoder.encode(PASSWORD));
+        user.setEnabled(true);
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // goes through the service so the authentication caches are evicted as well
+        userService.deleteById(user.getId());
+    }
+
+    private TokenResponseRecord login() throws Exception {
+        String body = mockMvc.perform(post("/authenticate").with(httpBasic(EMAIL, PASSWORD)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, TokenResponseRecord.class);
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequestRecord(refreshToken))));
+    }
+
+    @Test
+    void authenticate_withRepeatedCredentials_verifiesPasswordOnce() throws Exception {
+        mockMvc.perform(post("/authenticate").with(httpBasic(EMAIL, PASSWORD))).andExpect(status().isOk());
+        mockMvc.perform(post("/authenticate").with(httpBasic(EMAIL, PASSWORD))).andExpect(status().isOk());
+
+        verify(userDetailsService, times(1)).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void authenticate_withWrongPassword_returnsUnauthorized() throws Exception {
+        mockMvc.perform(post("/authenticate").with(httpBasic(EMAIL, PASSWORD))).andExpect(status().isOk());
+
+        mockMvc.perform(post("/authenticate").with(httpBasic(EMAIL, "Wrong@1234")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void me_withBearerToken_resolvesProfileWithoutDatabase() throws Exception {
+        String token = login().accessToken();
+        clearInvocations(userRepository);
+
+        mockMvc.perform(get("/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(user.getId()))
+                .andExpect(jsonPath("$.name").value("flow"))
+                .andExpect(jsonPath("$.email").value(EMAIL))
+                .andExpect(jsonPath("$.enabled").value(true));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void me_afterPasswordReset_rejectsEarlierToken() throws Exception {
+        String token = login().accessToken();
+
+        userService.resetPassword(userTokenService.issue(user.getId(), UserToken.Purpose.PASSWORD_RESET));
+
+        mockMvc.perform(get("/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void authenticate_afterPasswordReset_rejectsOldPassword() throws Exception {
+        mockMvc.perform(post("/authenticate").with(httpBasic(EMAIL, PASSWORD))).andExpect(status().isOk());
+
+        userService.resetPassword(userTokenService.issue(user.getId(), UserToken.Purpose.PASSWORD_RESET));
+
+        mockMvc.perform(post("/authenticate").with(httpBasic(EMAIL, PASSWORD)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void jwks_withoutAuthentication_publishesSigningKey() throws Exception {
+        String token = login().accessToken();
+        String kid = JWSObject.parse(token).getHeader().getKeyID();
+
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keys[0].kid").value(kid))
+                .andExpect(jsonPath("$.keys[0].d").doesNotExist());
+    }
+
+    @Test
+    void refresh_withIssuedToken_renewsWithoutPasswordCheck() throws Exception {
+        TokenResponseRecord tokens = login();
+        clearInvocations(userDetailsService);
+
+        String body = refresh(tokens.refreshToken())
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        TokenResponseRecord renewed = objectMapper.readValue(body, TokenResponseRecord.class);
+
+        assertThat(renewed.refreshToken()).isNotEqualTo(tokens.refreshToken());
+        mockMvc.perform(get("/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + renewed.accessToken()))
+                .andExpect(status().isOk());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void refresh_withReusedToken_revokesTokenFamily() throws Exception {
+        TokenResponseRecord tokens = login();
+        String body = refresh(tokens.refreshToken()).andReturn().getResponse().getContentAsString();
+        TokenResponseRecord renewed = objectMapper.readValue(body, TokenResponseRecord.class);
+
+        refresh(tokens.refreshToken()).andExpect(status().isUnauthorized());
+        refresh(renewed.refreshToken()).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refresh_afterPasswordReset_returnsUnauthorized() throws Exception {
+        TokenResponseRecord tokens = login();
+
+        userService.resetPassword(userTokenService.issue(user.getId(), UserToken.Purpose.PASSWORD_RESET));
+
+        refresh(tokens.refreshToken()).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void activate_withIssuedToken_enablesAccountOnlyOnce() throws Exception {
+        user.setEnabled(false);
+        user = userRepository.save(user);
+        String token = userTokenService.issue(user.getId(), UserToken.Purpose.ACTIVATION);
+
+        mockMvc.perform(get("/activate/{token}", token)).andExpect(status().isOk());
+        mockMvc.perform(get("/activate/{token}", token)).andExpect(status().isBadRequest());
+
+        assertThat(userRepository.findById(user.getId())).get().extracting(User::isEnabled).isEqualTo(true);
+    }
+
+    @Test
+    void deleteById_removesTheUsersTokens() throws Exception {
+        login();
+        userTokenService.issue(user.getId(), UserToken.Purpose.PASSWORD_RESET);
+
+        userService.deleteById(user.getId());
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tb_refresh_token where user_id = ?",
+                Integer.class, user.getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tb_user_tokens where user_id = ?",
+                Integer.class, user.getId())).isZero();
+    }
+
+    @Test
+    void forgetPassword_overAccountLimit_returnsTooManyRequests() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/forgetPassword").param("email", "limited@email.com"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        mockMvc.perform(get("/forgetPassword").param("email", "LIMITED@email.com"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+}
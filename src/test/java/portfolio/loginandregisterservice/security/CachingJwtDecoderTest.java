@@ -0,0 +1,122 @@
+package portfolio.loginandregisterservice.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import portfolio.loginandregisterservice.infra.security.CachingJwtDecoder;
+import portfolio.loginandregisterservice.infra.security.JwtService;
+import portfolio.loginandregisterservice.infra.security.TokenRevocationRegistry;
+import portfolio.loginandregisterservice.infra.security.TokenVersionValidator;
+import portfolio.loginandregisterservice.model.events.UserTokensRevokedEvent;
+import portfolio.loginandregisterservice.model.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtDecoderTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    @Mock
+    private JwtDecoder delegate;
+    @Mock
+    private UserRepository userRepository;
+
+    private TokenRevocationRegistry registry;
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        registry = new TokenRevocationRegistry(userRepository, Duration.ofHours(1), 100);
+        decoder = new CachingJwtDecoder(delegate, new TokenVersionValidator(registry), 100);
+    }
+
+    @Test
+    void decode_sameTokenTwice_verifiesOnce() {
+        when(delegate.decode(TOKEN)).thenReturn(jwt(Instant.now().plusSeconds(3600)));
+
+        Jwt first = decoder.decode(TOKEN);
+        Jwt second = decoder.decode(TOKEN);
+
+        assertThat(second).isSameAs(first);
+        verify(delegate, times(1)).decode(TOKEN);
+    }
+
+    @Test
+    void decode_afterUserRevoked_purgesCachedToken() {
+        when(delegate.decode(TOKEN)).thenReturn(jwt(Instant.now().plusSeconds(3600)));
+        decoder.decode(TOKEN);
+
+        decoder.onTokensRevoked(new UserTokensRevokedEvent(1L, 1));
+        decoder.decode(TOKEN);
+
+        verify(delegate, times(2)).decode(TOKEN);
+    }
+
+    @Test
+    void decode_cachedTokenRevokedBeforePurge_isRejected() {
+        when(delegate.decode(TOKEN)).thenReturn(jwt(Instant.now().plusSeconds(3600)));
+        decoder.decode(TOKEN);
+
+        registry.revoke(1L, 1);
+
+        assertThatThrownBy(() -> decoder.decode(TOKEN)).isInstanceOf(JwtValidationException.class);
+    }
+
+    @Test
+    void decode_cachedTokenRevokedOnAnotherNode_isRejectedAfterRefresh() {
+        registry = new TokenRevocationRegistry(userRepository, Duration.ZERO, 100);
+        decoder = new CachingJwtDecoder(delegate, new TokenVersionValidator(registry), 100);
+        when(delegate.decode(TOKEN)).thenReturn(jwt(Instant.now().plusSeconds(3600)));
+        decoder.decode(TOKEN);
+
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(1));
+
+        assertThatThrownBy(() -> decoder.decode(TOKEN)).isInstanceOf(JwtValidationException.class);
+    }
+
+    @Test
+    void decode_cachedTokenOfDeletedUser_isRejected() {
+        when(delegate.decode(TOKEN)).thenReturn(jwt(Instant.now().plusSeconds(3600)));
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.empty());
+        decoder.decode(TOKEN);
+
+        assertThatThrownBy(() -> decoder.decode(TOKEN)).isInstanceOf(JwtValidationException.class);
+    }
+
+    @Test
+    void decode_tokenAlreadyPastExpiry_isNotServedFromCache() {
+        when(delegate.decode(TOKEN)).thenReturn(jwt(Instant.now().minusSeconds(1)));
+
+        decoder.decode(TOKEN);
+        decoder.decode(TOKEN);
+
+        verify(delegate, times(2)).decode(TOKEN);
+    }
+
+    private static Jwt jwt(Instant expiresAt) {
+        return Jwt.withTokenValue(TOKEN)
+                .header("alg", "RS256")
+                .subject("user@email.com")
+                .issuedAt(expiresAt.minusSeconds(3600))
+                .expiresAt(expiresAt)
+                .claim(JwtService.USER_ID_CLAIM, 1L)
+                .claim(JwtService.TOKEN_VERSION_CLAIM, 0)
+                .build();
+    }
+}
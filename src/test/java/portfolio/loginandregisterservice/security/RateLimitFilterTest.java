@@ -0,0 +1,100 @@
+package portfolio.loginandregisterservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import portfolio.loginandregisterservice.infra.security.RateLimitFilter;
+import portfolio.loginandregisterservice.infra.security.TokenBucketRateLimiter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final TokenBucketRateLimiter perIp = new TokenBucketRateLimiter(2, Duration.ofHours(1), 100, now::get);
+    private final TokenBucketRateLimiter perAccount = new TokenBucketRateLimiter(1, Duration.ofHours(1), 100, now::get);
+    private final RateLimitFilter filter = new RateLimitFilter(List.of(
+            new RateLimitFilter.Rule("register", antMatcher("/register"), perIp, perAccount,
+                    RateLimitFilter::jsonEmail)),
+            new SimpleMeterRegistry());
+
+    @Test
+    void doFilter_withJsonBody_limitsByEmailAndStillPassesBodyOn() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        assertThat(register("first@email.com", chain).getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest().getInputStream().readAllBytes())
+                .asString(StandardCharsets.UTF_8).contains("first@email.com");
+
+        assertThat(register("First@Email.com", new MockFilterChain()).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void doFilter_whenAccountIsLimited_keepsTheIpToken() throws Exception {
+        register("first@email.com", new MockFilterChain());
+        register("first@email.com", new MockFilterChain());
+
+        // the refused request above gave its per-IP token back
+        assertThat(register("second@email.com", new MockFilterChain()).getStatus()).isEqualTo(200);
+        assertThat(register("third@email.com", new MockFilterChain()).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void doFilter_withJsonBody_replaysBodyToReadListener() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        register("first@email.com", chain);
+        ServletInputStream in = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allRead = new AtomicBoolean();
+
+        assertThat(in.isFinished()).isFalse();
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[8];
+                int n;
+                while (in.isReady() && (n = in.read(buffer)) >= 0) {
+                    read.write(buffer, 0, n);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+
+        assertThat(read.toString(StandardCharsets.UTF_8)).contains("first@email.com");
+        assertThat(allRead).isTrue();
+        assertThat(in.isFinished()).isTrue();
+    }
+
+    private MockHttpServletResponse register(String email, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/register");
+        request.setServletPath("/register");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(("{\"name\":\"user\",\"email\":\"" + email + "\",\"password\":\"Password@1\"}")
+                .getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
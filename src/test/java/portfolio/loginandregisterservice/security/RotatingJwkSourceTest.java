@@ -0,0 +1,171 @@
+package portfolio.loginandregisterservice.security;
+
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import portfolio.loginandregisterservice.infra.security.RotatingJwkSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RotatingJwkSourceTest {
+
+    private static final Duration RETENTION = Duration.ofHours(1);
+    private static final Duration ACTIVATION_DELAY = Duration.ofMinutes(2);
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    private Path keyDirectory;
+
+    private Clock clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(NOW);
+    }
+
+    @Test
+    void reload_withNewerKey_signsWithNewKeyAndStillVerifiesOld() throws Exception {
+        writeKeyPair("first", NOW);
+        RotatingJwkSource source = newSource();
+        String token = sign(source);
+
+        writeKeyPair("second", NOW.plusSeconds(60));
+        when(clock.instant()).thenReturn(NOW.plus(ACTIVATION_DELAY));
+        source.reload();
+        when(clock.instant()).thenReturn(NOW.plus(ACTIVATION_DELAY.multipliedBy(2)));
+        source.reload();
+
+        assertThat(source.activeKey().getKeyID()).isEqualTo("second");
+        assertThat(decoder(source).decode(token).getSubject()).isEqualTo("user@email.com");
+        assertThat(decoder(source).decode(sign(source)).getHeaders()).containsEntry("kid", "second");
+    }
+
+    @Test
+    void reload_withNewKey_publishesItBeforeSigningWithIt() throws Exception {
+        writeKeyPair("first", NOW.minus(ACTIVATION_DELAY));
+        RotatingJwkSource source = newSource();
+
+        writeKeyPair("second", NOW.plusSeconds(30));
+        when(clock.instant()).thenReturn(NOW.plusSeconds(30));
+        source.reload();
+
+        assertThat(kids(source)).containsExactlyInAnyOrder("first", "second");
+        assertThat(source.activeKey().getKeyID()).isEqualTo("first");
+
+        when(clock.instant()).thenReturn(NOW.plusSeconds(30).plus(ACTIVATION_DELAY));
+        source.reload();
+
+        assertThat(source.activeKey().getKeyID()).isEqualTo("second");
+    }
+
+    @Test
+    void newSource_withRecentlyWrittenKey_signsWithOlderPublishedKey() throws Exception {
+        writeKeyPair("first", NOW.minus(ACTIVATION_DELAY));
+        writeKeyPair("second", NOW.minusSeconds(10));
+
+        assertThat(newSource().activeKey().getKeyID()).isEqualTo("first");
+    }
+
+    @Test
+    void reload_afterRemovedKeyRetention_stopsVerifyingIt() throws Exception {
+        writeKeyPair("first", NOW);
+        RotatingJwkSource source = newSource();
+        String token = sign(source);
+
+        writeKeyPair("second", NOW.plusSeconds(60));
+        Files.delete(keyDirectory.resolve("first.key"));
+        Files.delete(keyDirectory.resolve("first.pub"));
+        source.reload();
+
+        assertThat(decoder(source).decode(token).getSubject()).isEqualTo("user@email.com");
+        assertThat(kids(source)).containsExactlyInAnyOrder("first", "second");
+
+        when(clock.instant()).thenReturn(NOW.plus(RETENTION).plusSeconds(1));
+        source.reload();
+
+        assertThatThrownBy(() -> decoder(source).decode(token)).isInstanceOf(JwtException.class);
+        assertThat(kids(source)).containsExactly("second");
+    }
+
+    @Test
+    void publicJwkSet_exposesNoPrivateKeyMaterial() throws Exception {
+        writeKeyPair("first", NOW);
+        RotatingJwkSource source = newSource();
+
+        List<Map<String, Object>> keys = jwks(source);
+
+        assertThat(keys).singleElement().satisfies(key -> assertThat(key).doesNotContainKey("d"));
+    }
+
+    private RotatingJwkSource newSource() {
+        return new RotatingJwkSource("ES256", null, null, keyDirectory, RETENTION, ACTIVATION_DELAY, clock);
+    }
+
+    private static String sign(RotatingJwkSource source) {
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.ES256).keyId(source.activeKey().getKeyID()).build();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject("user@email.com")
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+        return new NimbusJwtEncoder(source).encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    private static JwtDecoder decoder(RotatingJwkSource source) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(source.verificationKeySelector());
+        return new NimbusJwtDecoder(processor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> jwks(RotatingJwkSource source) {
+        return (List<Map<String, Object>>) source.publicJwkSet().get("keys");
+    }
+
+    private static List<Object> kids(RotatingJwkSource source) {
+        return jwks(source).stream().map(key -> key.get("kid")).toList();
+    }
+
+    private void writeKeyPair(String kid, Instant modified) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair pair = generator.generateKeyPair();
+        Path publicFile = keyDirectory.resolve(kid + ".pub");
+        Path privateFile = keyDirectory.resolve(kid + ".key");
+        Files.writeString(publicFile, pem("PUBLIC KEY", pair.getPublic().getEncoded()));
+        Files.writeString(privateFile, pem("PRIVATE KEY", pair.getPrivate().getEncoded()));
+        Files.setLastModifiedTime(privateFile, FileTime.from(modified));
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder().encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+}
@@ -0,0 +1,95 @@
+package portfolio.loginandregisterservice.security;
+
+import org.junit.jupiter.api.Test;
+import portfolio.loginandregisterservice.infra.security.TokenBucketRateLimiter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    // 3 tokens, one back every 20 seconds
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, Duration.ofMinutes(1), 100, now::get);
+
+    @Test
+    void tryAcquire_beyondCapacity_reportsWaitUntilNextToken() {
+        assertThat(limiter.tryAcquire("key")).isZero();
+        assertThat(limiter.tryAcquire("key")).isZero();
+        assertThat(limiter.tryAcquire("key")).isZero();
+
+        assertThat(limiter.tryAcquire("key")).isEqualTo(Duration.ofSeconds(20).toNanos());
+        assertThat(limiter.tryAcquire("other")).isZero();
+    }
+
+    @Test
+    void tryAcquire_afterRefillInterval_grantsOneMoreToken() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("key");
+        }
+
+        now.addAndGet(Duration.ofSeconds(20).toNanos());
+
+        assertThat(limiter.tryAcquire("key")).isZero();
+        assertThat(limiter.tryAcquire("key")).isPositive();
+    }
+
+    @Test
+    void release_returnsTakenToken() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("key");
+        }
+
+        limiter.release("key");
+
+        assertThat(limiter.tryAcquire("key")).isZero();
+        assertThat(limiter.tryAcquire("key")).isPositive();
+    }
+
+    @Test
+    void tryAcquire_underContention_grantsExactlyCapacity() throws Exception {
+        TokenBucketRateLimiter contended = new TokenBucketRateLimiter(1000, Duration.ofHours(1), 100, now::get);
+        int threads = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int granted = 0;
+                    for (int i = 0; i < 100; i++) {
+                        granted += contended.tryAcquire("hot") == 0 ? 1 : 0;
+                    }
+                    return granted;
+                }));
+            }
+            start.countDown();
+
+            int granted = 0;
+            for (Future<Integer> result : results) {
+                granted += result.get();
+            }
+            assertThat(granted).isEqualTo(1000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void of_parsesSpecAndTreatsBlankAsUnlimited() {
+        assertThat(TokenBucketRateLimiter.of("", 100)).isNull();
+        assertThat(TokenBucketRateLimiter.of("5/PT1S", 100).tryAcquire("key")).isZero();
+        assertThatThrownBy(() -> TokenBucketRateLimiter.of("5 per second", 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,115 @@
+package portfolio.loginandregisterservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import portfolio.loginandregisterservice.infra.security.UserDetailsServiceImpl;
+import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.events.UserChangedEvent;
+import portfolio.loginandregisterservice.model.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceImplTest {
+
+    private static final String EMAIL = "cached@email.com";
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private UserDetailsServiceImpl userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = new UserDetailsServiceImpl(userRepository, Duration.ofMinutes(5), 100, Duration.ofSeconds(5),
+                transactionManager, registry);
+    }
+
+    @Test
+    void loadUserByUsername_calledTwice_queriesRepositoryOnce() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user(false)));
+
+        userDetailsService.loadUserByUsername(EMAIL);
+        UserDetails sut = userDetailsService.loadUserByUsername(EMAIL);
+
+        assertThat(sut.getUsername()).isEqualTo(EMAIL);
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+        assertThat(registry.get("cache.gets").tag("cache", "userDetails").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void loadUserByUsername_afterUserChanged_reloadsFreshSnapshot() {
+        when(userRepository.findByEmail(EMAIL))
+                .thenReturn(Optional.of(user(false)))
+                .thenReturn(Optional.of(user(true)));
+
+        assertThat(userDetailsService.loadUserByUsername(EMAIL).isEnabled()).isFalse();
+        userDetailsService.onUserChanged(new UserChangedEvent(1L, EMAIL));
+
+        assertThat(userDetailsService.loadUserByUsername(EMAIL).isEnabled()).isTrue();
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void loadUserByUsername_afterUserChanged_readsOutsideReadOnlyTransaction() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user(true)));
+
+        userDetailsService.loadUserByUsername(EMAIL);
+        userDetailsService.onUserChanged(new UserChangedEvent(1L, EMAIL));
+        userDetailsService.loadUserByUsername(EMAIL);
+
+        // only the first lookup may be routed to a replica
+        verify(transactionManager, times(1)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void loadUserByUsername_withUnknownEmail_throwsException() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername(EMAIL))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void updatePassword_whenUserChangedConcurrently_keepsLoginWithOldDetails() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user(true)));
+        when(userRepository.save(any(User.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+        UserDetails details = userDetailsService.loadUserByUsername(EMAIL);
+
+        UserDetails sut = userDetailsService.updatePassword(details, "{bcrypt}upgraded");
+
+        assertThat(sut).isSameAs(details);
+        verify(transactionManager).rollback(any());
+    }
+
+    private static User user(boolean enabled) {
+        User user = new User("cached", EMAIL, "hash");
+        user.setId(1L);
+        user.setEnabled(enabled);
+        return user;
+    }
+}
@@ -0,0 +1,230 @@
+package portfolio.loginandregisterservice.service;
+
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import portfolio.loginandregisterservice.model.entities.EmailOutbox;
+import portfolio.loginandregisterservice.model.repository.EmailOutboxRepository;
+import portfolio.loginandregisterservice.model.service.EmailBodyCipher;
+import portfolio.loginandregisterservice.model.service.EmailDispatcher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static portfolio.loginandregisterservice.common.UserConstants.USER;
+
+@ExtendWith(MockitoExtension.class)
+class EmailDispatcherTest {
+
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+
+    private final EmailBodyCipher cipher = new EmailBodyCipher("", true);
+    private FakeMailSender emailSender;
+    private EmailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        emailSender = new FakeMailSender();
+        dispatcher = new EmailDispatcher(outboxRepository, emailSender, cipher, new SyncTaskExecutor(),
+                2, false, 10, 3, Duration.ofSeconds(10), Duration.ofMinutes(15), Duration.ofMinutes(2), Duration.ofDays(7));
+        lenient().when(outboxRepository.claim(anyLong(), anyLong(), anyCollection(), any(Instant.class),
+                eq(EmailOutbox.Status.SENDING), any(Instant.class))).thenReturn(1);
+    }
+
+    @Test
+    void dispatchPending_withDueEntry_sendsAndDeletesEntry() {
+        EmailOutbox entry = entry(1L);
+        when(outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                anyCollection(), any(Instant.class), any(Pageable.class))).thenReturn(List.of(entry));
+
+        dispatcher.dispatchPending();
+
+        assertThat(emailSender.sent).hasSize(1);
+        assertThat(emailSender.sent.getFirst().getTo()).containsExactly(USER.getEmail());
+        assertThat(emailSender.sent.getFirst().getText()).isEqualTo("body");
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void dispatchPending_whenAnotherNodeClaimedEntry_skipsIt() {
+        EmailOutbox taken = entry(1L);
+        EmailOutbox free = entry(2L);
+        when(outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                anyCollection(), any(Instant.class), any(Pageable.class))).thenReturn(List.of(taken, free));
+        when(outboxRepository.claim(eq(1L), anyLong(), anyCollection(), any(Instant.class),
+                eq(EmailOutbox.Status.SENDING), any(Instant.class))).thenReturn(0);
+
+        dispatcher.dispatchPending();
+
+        assertThat(emailSender.sent).hasSize(1);
+        assertThat(free.getVersion()).isEqualTo(1);
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(2L));
+    }
+
+    @Test
+    void dispatchPending_whenLeaseIsLostDuringRetry_keepsGoing() {
+        emailSender.failuresLeft = 1;
+        EmailOutbox entry = entry(1L);
+        when(outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                anyCollection(), any(Instant.class), any(Pageable.class))).thenReturn(List.of(entry));
+        when(outboxRepository.save(entry)).thenThrow(new ObjectOptimisticLockingFailureException(EmailOutbox.class, 1L));
+
+        dispatcher.dispatchPending();
+
+        assertThat(entry.getAttempts()).isEqualTo(1);
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void dispatchPending_whenSmtpFails_schedulesRetryWithBackoff() {
+        emailSender.failuresLeft = 1;
+        EmailOutbox entry = entry(1L);
+        when(outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                anyCollection(), any(Instant.class), any(Pageable.class))).thenReturn(List.of(entry));
+
+        dispatcher.dispatchPending();
+
+        assertThat(entry.getStatus()).isEqualTo(EmailOutbox.Status.PENDING);
+        assertThat(entry.getAttempts()).isEqualTo(1);
+        assertThat(entry.getNextAttemptAt()).isAfter(Instant.now().plusSeconds(5));
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void dispatchPending_afterMaxAttempts_marksEntryFailed() {
+        emailSender.failuresLeft = Integer.MAX_VALUE;
+        EmailOutbox entry = entry(1L);
+        entry.setAttempts(2);
+        when(outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                anyCollection(), any(Instant.class), any(Pageable.class))).thenReturn(List.of(entry));
+
+        dispatcher.dispatchPending();
+
+        assertThat(entry.getStatus()).isEqualTo(EmailOutbox.Status.FAILED);
+        assertThat(entry.getAttempts()).isEqualTo(3);
+        assertThat(entry.getLastError()).isEqualTo("smtp unavailable");
+        assertThat(entry.getBody()).isNull();
+    }
+
+    @Test
+    void dispatchPending_withUnreadableBody_failsEntryWithoutSending() {
+        EmailOutbox entry = new EmailOutbox(USER.getEmail(), "Account Activation",
+                new EmailBodyCipher("", true).encrypt("body"));
+        entry.setId(1L);
+        when(outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                anyCollection(), any(Instant.class), any(Pageable.class))).thenReturn(List.of(entry));
+
+        dispatcher.dispatchPending();
+
+        assertThat(emailSender.sent).isEmpty();
+        assertThat(entry.getStatus()).isEqualTo(EmailOutbox.Status.FAILED);
+        assertThat(entry.getLastError()).contains("another mail.outbox.encryption-key");
+        assertThat(entry.getBody()).isNull();
+    }
+
+    @Test
+    void cipher_withoutKey_refusesToStartUnlessEphemeralKeyAllowed() {
+        assertThatThrownBy(() -> new EmailBodyCipher("", false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("mail.outbox.encryption-key");
+    }
+
+    @Test
+    void purgeFailed_deletesFailedEntriesOlderThanRetention() {
+        dispatcher.purgeFailed();
+
+        verify(outboxRepository).deleteByStatusAndCreatedAtBefore(eq(EmailOutbox.Status.FAILED),
+                argThat(cutoff -> cutoff.isBefore(Instant.now().minus(Duration.ofDays(6)))));
+    }
+
+    @Test
+    void dispatchPending_withSeveralDueEntries_sendsThemInOneBatch() {
+        List<EmailOutbox> entries = List.of(entry(1L), entry(2L), entry(3L));
+        when(outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                anyCollection(), any(Instant.class), any(Pageable.class))).thenReturn(entries);
+
+        dispatcher.dispatchPending();
+
+        assertThat(emailSender.batches).containsExactly(3);
+        assertThat(emailSender.sent).hasSize(3);
+    }
+
+    @Test
+    void dispatchPending_whenOneMessageIsRejected_retriesOnlyThatMessage() {
+        EmailOutbox accepted = entry(1L);
+        EmailOutbox rejected = entry(2L, "rejected@email.com");
+        emailSender.rejectedRecipient = rejected.getRecipient();
+        when(outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                anyCollection(), any(Instant.class), any(Pageable.class))).thenReturn(List.of(accepted, rejected));
+
+        dispatcher.dispatchPending();
+
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L));
+        assertThat(accepted.getAttempts()).isZero();
+        assertThat(rejected.getAttempts()).isEqualTo(1);
+        assertThat(rejected.getStatus()).isEqualTo(EmailOutbox.Status.PENDING);
+    }
+
+    private EmailOutbox entry(Long id) {
+        return entry(id, USER.getEmail());
+    }
+
+    private EmailOutbox entry(Long id, String recipient) {
+        EmailOutbox entry = new EmailOutbox(recipient, "Account Activation", cipher.encrypt("body"));
+        entry.setId(id);
+        return entry;
+    }
+
+    // in-process stand-in for the SMTP server
+    private static class FakeMailSender extends JavaMailSenderImpl {
+        private final List<SimpleMailMessage> sent = new ArrayList<>();
+        private final List<Integer> batches = new ArrayList<>();
+        private int failuresLeft;
+        private String rejectedRecipient;
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new MailSendException("smtp unavailable");
+            }
+            batches.add(simpleMessages.length);
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            for (SimpleMailMessage message : simpleMessages) {
+                if (message.getTo()[0].equals(rejectedRecipient)) {
+                    failed.put(message, new MessagingException("550 mailbox unavailable"));
+                } else {
+                    sent.add(message);
+                }
+            }
+            if (!failed.isEmpty()) {
+                throw new MailSendException(failed);
+            }
+        }
+    }
+}
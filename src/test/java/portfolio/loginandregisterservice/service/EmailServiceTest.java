@@ -2,13 +2,17 @@ package portfolio.loginandregisterservice.service;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import portfolio.loginandregisterservice.model.entities.EmailOutbox;
+import portfolio.loginandregisterservice.model.repository.EmailOutboxRepository;
+import portfolio.loginandregisterservice.model.service.EmailBodyCipher;
 import portfolio.loginandregisterservice.model.service.EmailService;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static portfolio.loginandregisterservice.common.UserConstants.USER;
@@ -17,48 +21,63 @@ import static portfolio.loginandregisterservice.common.UserConstants.USER;
 class EmailServiceTest {
 
     @Mock
-    private JavaMailSender emailSender;
+    private EmailOutboxRepository outboxRepository;
+
+    @Spy
+    private EmailBodyCipher cipher = new EmailBodyCipher("", true);
 
     @InjectMocks
     private EmailService emailService;
 
     private final String TEST_EMAIL = USER.getEmail();
-    private final String TEST_TOKEN = USER.getUniqueToken();
+    private final String TEST_TOKEN = "activationToken";
     private final String TEST_PASSWORD = USER.getPassword();
 
     @Test
-    void sendWelcomeEmail_ShouldSendEmail() {
+    void sendWelcomeEmail_ShouldEnqueueEmail() {
         // Act
         emailService.sendWelcomeEmail(USER.getEmail(), USER.getName());
 
         // Assert
-        verify(emailSender).send(any(SimpleMailMessage.class));
+        verify(outboxRepository).save(any(EmailOutbox.class));
     }
 
     @Test
-    void sendActivationEmail_ShouldSendEmail() {
+    void sendActivationEmail_ShouldEnqueueEmail() {
         // Act
-        emailService.sendActivationEmail(USER.getEmail(), USER.getUniqueToken());
+        emailService.sendActivationEmail(USER.getEmail(), TEST_TOKEN);
 
         // Assert
-        verify(emailSender).send(any(SimpleMailMessage.class));
+        verify(outboxRepository).save(any(EmailOutbox.class));
     }
 
     @Test
-    void sendResetPasswordEmailAuth_ShouldSendEmail() {
+    void sendResetPasswordEmailAuth_ShouldEnqueueEmail() {
         // Act
         emailService.sendResetPasswordEmailAuth(TEST_EMAIL, TEST_TOKEN);
 
         // Assert
-        verify(emailSender).send(any(SimpleMailMessage.class));
+        verify(outboxRepository).save(any(EmailOutbox.class));
     }
 
     @Test
-    void sendResetPasswordConfirmation_ShouldSendEmail() {
+    void sendResetPasswordConfirmation_ShouldEnqueueEmail() {
         // Act
         emailService.sendResetPasswordConfirmation(TEST_EMAIL, TEST_PASSWORD);
 
         // Assert
-        verify(emailSender).send(any(SimpleMailMessage.class));
+        verify(outboxRepository).save(any(EmailOutbox.class));
+    }
+
+    @Test
+    void sendActivationEmail_ShouldNotStoreTokenInPlainText() {
+        // Act
+        emailService.sendActivationEmail(TEST_EMAIL, TEST_TOKEN);
+
+        // Assert
+        ArgumentCaptor<EmailOutbox> saved = ArgumentCaptor.forClass(EmailOutbox.class);
+        verify(outboxRepository).save(saved.capture());
+        assertThat(saved.getValue().getBody()).doesNotContain(TEST_TOKEN);
+        assertThat(cipher.decrypt(saved.getValue().getBody())).contains(TEST_TOKEN);
     }
 }
\ No newline at end of file
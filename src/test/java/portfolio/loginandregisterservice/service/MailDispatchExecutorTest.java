@@ -0,0 +1,93 @@
+package portfolio.loginandregisterservice.service;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import portfolio.loginandregisterservice.infra.mail.MailDispatchConfig;
+import portfolio.loginandregisterservice.model.entities.EmailOutbox;
+import portfolio.loginandregisterservice.model.repository.EmailOutboxRepository;
+import portfolio.loginandregisterservice.model.service.EmailBodyCipher;
+import portfolio.loginandregisterservice.model.service.EmailDispatcher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MailDispatchExecutorTest {
+
+    private static final int CONCURRENCY = 2;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void dispatchPending_withSlowSmtp_neverBlocksPollAndCapsConcurrentBatches(boolean virtualThreads) {
+        new ApplicationContextRunner()
+                .withUserConfiguration(MailDispatchConfig.class)
+                .withPropertyValues("spring.threads.virtual.enabled=" + virtualThreads,
+                        "mail.outbox.concurrency=" + CONCURRENCY)
+                .run(context -> {
+                    TaskExecutor executor = context.getBean("mailDispatchExecutor", TaskExecutor.class);
+                    BlockingMailSender mailSender = new BlockingMailSender();
+                    EmailBodyCipher cipher = new EmailBodyCipher("", true);
+                    EmailOutboxRepository outboxRepository = mock(EmailOutboxRepository.class);
+                    List<EmailOutbox> due = LongStream.rangeClosed(1, 4).mapToObj(id -> {
+                        EmailOutbox entry = new EmailOutbox("user" + id + "@email.com", "subject", cipher.encrypt("body"));
+                        entry.setId(id);
+                        return entry;
+                    }).toList();
+                    when(outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                            anyCollection(), any(Instant.class), any(Pageable.class))).thenReturn(due);
+                    when(outboxRepository.claim(anyLong(), anyLong(), anyCollection(), any(Instant.class),
+                            eq(EmailOutbox.Status.SENDING), any(Instant.class))).thenReturn(1);
+                    EmailDispatcher dispatcher = new EmailDispatcher(outboxRepository, mailSender, cipher, executor,
+                            CONCURRENCY, virtualThreads, 1, 3, Duration.ofSeconds(10), Duration.ofMinutes(15),
+                            Duration.ofMinutes(2), Duration.ofDays(7));
+
+                    long start = System.nanoTime();
+                    dispatcher.dispatchPending();
+                    dispatcher.dispatchPending();
+                    long elapsed = System.nanoTime() - start;
+
+                    assertThat(Duration.ofNanos(elapsed)).isLessThan(Duration.ofSeconds(1));
+                    mailSender.release.countDown();
+                    assertThat(mailSender.finished.await(5, TimeUnit.SECONDS)).isTrue();
+                    assertThat(mailSender.maxInFlight.get()).isBetween(1, CONCURRENCY);
+                });
+    }
+
+    // holds every send until released, recording how many run at once
+    private static class BlockingMailSender extends JavaMailSenderImpl {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                finished.countDown();
+            }
+        }
+    }
+}
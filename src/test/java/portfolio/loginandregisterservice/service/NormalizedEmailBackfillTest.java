@@ -0,0 +1,61 @@
+package portfolio.loginandregisterservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import portfolio.loginandregisterservice.model.repository.UserRepository;
+import portfolio.loginandregisterservice.model.service.EmailService;
+import portfolio.loginandregisterservice.model.service.NormalizedEmailBackfill;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class NormalizedEmailBackfillTest {
+
+    private static final List<Long> IDS = List.of(900001L, 900002L, 900003L, 900004L, 900005L);
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockBean
+    private EmailService emailService;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllById(IDS);
+    }
+
+    @Test
+    void run_withCollidingAddresses_skipsThemAndBackfillsTheRest() {
+        insert(900001L, "backfill-taken@email.com", "backfill-taken@email.com");
+        insert(900002L, "Backfill-Taken@email.com", null);
+        insert(900003L, "backfill-first@email.com", null);
+        insert(900004L, "BACKFILL-FIRST@email.com", null);
+        insert(900005L, "backfill-last@email.com", null);
+
+        new NormalizedEmailBackfill(userRepository, transactionTemplate, 2).run(null);
+
+        assertThat(normalizedEmail(900002L)).isNull();
+        assertThat(normalizedEmail(900003L)).isEqualTo("backfill-first@email.com");
+        assertThat(normalizedEmail(900004L)).isNull();
+        assertThat(normalizedEmail(900005L)).isEqualTo("backfill-last@email.com");
+    }
+
+    private void insert(long id, String email, String normalizedEmail) {
+        jdbcTemplate.update("insert into tb_users (id, name, email, normalized_email, password, enabled, "
+                + "token_version, version) values (?, 'legacy', ?, ?, 'hash', true, 0, 0)", id, email, normalizedEmail);
+    }
+
+    private String normalizedEmail(long id) {
+        return userRepository.findById(id).orElseThrow().getNormalizedEmail();
+    }
+}
@@ -0,0 +1,75 @@
+package portfolio.loginandregisterservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import portfolio.loginandregisterservice.model.service.BreachedPasswordChecker;
+import portfolio.loginandregisterservice.model.service.PasswordBloomFilter;
+import portfolio.loginandregisterservice.model.service.PasswordBloomFilterBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordBloomFilterTest {
+
+    private static final int ENTRIES = 10_000;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void build_fromPwnedPasswordsList_findsEveryEntryAfterReopening() throws Exception {
+        Path input = directory.resolve("pwned.txt");
+        List<String> lines = new ArrayList<>();
+        IntStream.range(0, ENTRIES).forEach(i -> lines.add(sha1Hex("breached" + i) + ":" + (i + 1)));
+        Files.write(input, lines, StandardCharsets.US_ASCII);
+        Path output = directory.resolve("breached.bloom");
+
+        PasswordBloomFilterBuilder.build(input, output, 0.01);
+        PasswordBloomFilter filter = PasswordBloomFilter.open(output);
+
+        assertThat(filter.entries()).isEqualTo(ENTRIES);
+        assertThat(IntStream.range(0, ENTRIES).allMatch(i -> filter.mightContain("breached" + i))).isTrue();
+        long falsePositives = IntStream.range(0, ENTRIES).filter(i -> filter.mightContain("unseen" + i)).count();
+        assertThat(falsePositives).isLessThan(ENTRIES * 2 / 100);
+    }
+
+    @Test
+    void checker_withFilter_flagsBreachedPasswordsOnly() throws Exception {
+        Path input = directory.resolve("pwned.txt");
+        Files.writeString(input, sha1Hex("Password@1") + "\n", StandardCharsets.US_ASCII);
+        Path output = directory.resolve("breached.bloom");
+        PasswordBloomFilterBuilder.build(input, output, 0.001);
+
+        BreachedPasswordChecker checker = new BreachedPasswordChecker(output.toString());
+
+        assertThat(checker.isBreached("Password@1")).isTrue();
+        assertThat(checker.isBreached("Unlisted@1")).isFalse();
+        assertThat(new BreachedPasswordChecker("").isBreached("Password@1")).isFalse();
+    }
+
+    @Test
+    void open_withForeignFile_throws() throws Exception {
+        Path other = directory.resolve("other.bin");
+        Files.write(other, new byte[64]);
+
+        assertThatThrownBy(() -> PasswordBloomFilter.open(other)).hasMessageContaining("not a password Bloom filter");
+    }
+
+    private static String sha1Hex(String password) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().withUpperCase().formatHex(digest);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package portfolio.loginandregisterservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import portfolio.loginandregisterservice.model.service.PasswordPolicy;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordPolicyTest {
+
+    private static final String SPECIALS = "!@#$%^&*()-_+=<>?/{}[]";
+
+    private final PasswordPolicy policy = new PasswordPolicy(8, 20, true, true, true, true, SPECIALS, null);
+
+    @Test
+    void check_withEveryCharacterClass_accepts() {
+        assertThat(policy.check("Password@1")).isNull();
+        assertThat(policy.isValid("x]Y9zzzz")).isTrue();
+    }
+
+    @Test
+    void check_withMissingClassOrBadLength_rejectsWithRequirements() {
+        assertThat(policy.check("password@1")).startsWith("A valid password must provide at least one uppercase");
+        assertThat(policy.isValid("Password1")).isFalse();
+        assertThat(policy.isValid("Pa@1")).isFalse();
+        assertThat(policy.isValid("Password@1Password@1x")).isFalse();
+        assertThat(policy.isValid(null)).isFalse();
+    }
+
+    @Test
+    void check_withCharacterInsideOldRegexRange_isNotSpecial() {
+        // the former pattern [()-_] matched every character between ')' and '_', e.g. ';' and ':'
+        assertThat(policy.isValid("Password;1")).isFalse();
+        assertThat(policy.isValid("Password:1")).isFalse();
+    }
+
+    @Test
+    void check_withBannedPassword_rejectsIgnoringCase() {
+        PasswordPolicy withBanned = new PasswordPolicy(8, 20, true, true, true, true, SPECIALS,
+                new ByteArrayResource("Password@1\n\nQwerty@123\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(withBanned.check("pASSWORD@1")).contains("too common");
+        assertThat(withBanned.isValid("Qwerty@123")).isFalse();
+        assertThat(withBanned.isValid("Unlisted@1")).isTrue();
+    }
+
+    @Test
+    void check_withoutRequiredClasses_onlyChecksLength() {
+        PasswordPolicy lengthOnly = new PasswordPolicy(12, 64, false, false, false, false, "", null);
+
+        assertThat(lengthOnly.isValid("correct horse battery")).isTrue();
+        assertThat(lengthOnly.check("short")).isEqualTo("A valid password must be between 12 and 64 characters in length.");
+    }
+
+    @Test
+    void constructor_withLetterAsSpecialCharacter_throws() {
+        assertThatThrownBy(() -> new PasswordPolicy(8, 20, true, true, true, true, "a", null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
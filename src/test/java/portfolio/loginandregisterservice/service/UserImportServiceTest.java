@@ -0,0 +1,182 @@
+package portfolio.loginandregisterservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import portfolio.loginandregisterservice.exceptions.PasswordHashingRejectedException;
+import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.entities.UserToken;
+import portfolio.loginandregisterservice.model.records.UserImportErrorRecord;
+import portfolio.loginandregisterservice.model.records.UserImportResultRecord;
+import portfolio.loginandregisterservice.model.repository.UserRepository;
+import portfolio.loginandregisterservice.model.service.EmailService;
+import portfolio.loginandregisterservice.model.service.UserImportService;
+import portfolio.loginandregisterservice.model.service.BreachedPasswordChecker;
+import portfolio.loginandregisterservice.model.service.PasswordPolicy;
+import portfolio.loginandregisterservice.model.service.UserService;
+import portfolio.loginandregisterservice.model.service.UserTokenService;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PasswordEncoder passwordEncoder;
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private UserTokenService userTokenService;
+
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = importService(500);
+        lenient().when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hashed:" + invocation.getArgument(0));
+    }
+
+    private UserImportService importService(int batchSize) {
+        UserService userService = new UserService(userRepository, passwordEncoder, emailService, eventPublisher,
+                userTokenService, new PasswordPolicy(8, 20, true, true, true, true, "!@#$%^&*()-_+=<>?/{}[]", null),
+                new BreachedPasswordChecker(""));
+        return new UserImportService(userRepository, userService, userTokenService, emailService, passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new TransactionTemplate(transactionManager), new ObjectMapper(), batchSize, 1000, 2);
+    }
+
+    @Test
+    void importUsers_withCsv_savesValidRowsAndReportsInvalidOnes() throws Exception {
+        String csv = """
+                name,email,password
+                first,first@email.com,Password@1
+                second,second@email.com,weak
+                "Last, First",third@email.com,"Pass,word@1"
+                dup,first@email.com,Password@1
+                """;
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userTokenService.issue(any(), eq(UserToken.Purpose.ACTIVATION))).thenReturn("token");
+
+        UserImportResultRecord sut = importService.importUsers(new StringReader(csv), UserImportService.Format.CSV, false);
+
+        assertThat(sut.imported()).isEqualTo(2);
+        assertThat(sut.failed()).isEqualTo(2);
+        assertThat(sut.errors()).extracting(UserImportErrorRecord::line).containsExactly(3L, 5L);
+        List<User> saved = savedUsers(1).getFirst();
+        assertThat(saved).extracting(User::getName).containsExactly("first", "Last, First");
+        assertThat(saved).extracting(User::getPassword).containsExactly("hashed:Password@1", "hashed:Pass,word@1");
+        assertThat(saved).noneMatch(User::isEnabled);
+        verify(emailService).sendActivationEmail("first@email.com", "token");
+        verify(emailService).sendActivationEmail("third@email.com", "token");
+    }
+
+    @Test
+    void importUsers_markedActivated_enablesUsersWithoutActivationEmails() throws Exception {
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UserImportResultRecord sut = importService.importUsers(
+                new StringReader("a,a@email.com,Password@1"), UserImportService.Format.CSV, true);
+
+        assertThat(sut.imported()).isEqualTo(1);
+        assertThat(savedUsers(1).getFirst()).allMatch(User::isEnabled);
+        verifyNoInteractions(userTokenService, emailService);
+    }
+
+    @Test
+    void importUsers_withNdjson_reportsMalformedLinesAndExistingEmails() throws Exception {
+        when(userRepository.findExistingNormalizedEmails(anyCollection())).thenReturn(Set.of("taken@email.com"));
+        String ndjson = """
+                {"name":"new","email":"new@email.com","password":"Password@1"}
+                {"name":"broken"
+                {"name":"taken","email":"Taken@Email.com","password":"Password@1"}
+                """;
+
+        UserImportResultRecord sut = importService.importUsers(new StringReader(ndjson), UserImportService.Format.NDJSON, false);
+
+        assertThat(sut.imported()).isEqualTo(1);
+        assertThat(sut.errors()).extracting(UserImportErrorRecord::line).containsExactly(2L, 3L);
+        assertThat(savedUsers(1).getFirst()).extracting(User::getEmail).containsExactly("new@email.com");
+    }
+
+    @Test
+    void importUsers_withMoreRowsThanBatchSize_insertsInChunks() throws Exception {
+        String csv = """
+                a,a@email.com,Password@1
+                b,b@email.com,Password@1
+                c,c@email.com,Password@1
+                """;
+
+        UserImportResultRecord sut = importService(2).importUsers(new StringReader(csv), UserImportService.Format.CSV, false);
+
+        assertThat(sut.imported()).isEqualTo(3);
+        assertThat(savedUsers(2)).extracting(List::size).containsExactly(2, 1);
+    }
+
+    @Test
+    void importUsers_whenHashingIsBrieflyRejected_retriesTheRow() throws Exception {
+        when(passwordEncoder.encode("Password@1"))
+                .thenThrow(new PasswordHashingRejectedException("Password hashing capacity exhausted.", 0))
+                .thenReturn("hashed");
+
+        UserImportResultRecord sut = importService.importUsers(
+                new StringReader("a,a@email.com,Password@1"), UserImportService.Format.CSV, false);
+
+        assertThat(sut.imported()).isEqualTo(1);
+        assertThat(savedUsers(1).getFirst()).extracting(User::getPassword).containsExactly("hashed");
+    }
+
+    @Test
+    void importUsers_whenHashingStaysRejected_reportsOnlyThatRow() throws Exception {
+        when(passwordEncoder.encode("Rejected@1"))
+                .thenThrow(new PasswordHashingRejectedException("Password hashing capacity exhausted.", 0));
+        String csv = """
+                a,a@email.com,Password@1
+                b,b@email.com,Rejected@1
+                """;
+
+        UserImportResultRecord sut = importService.importUsers(new StringReader(csv), UserImportService.Format.CSV, false);
+
+        assertThat(sut.imported()).isEqualTo(1);
+        assertThat(sut.errors()).singleElement().satisfies(error -> {
+            assertThat(error.line()).isEqualTo(2L);
+            assertThat(error.message()).contains("capacity exhausted");
+        });
+        assertThat(savedUsers(1).getFirst()).extracting(User::getEmail).containsExactly("a@email.com");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<User>> savedUsers(int chunks) {
+        ArgumentCaptor<List<User>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userRepository, times(chunks)).saveAll(captor.capture());
+        return captor.getAllValues();
+    }
+}
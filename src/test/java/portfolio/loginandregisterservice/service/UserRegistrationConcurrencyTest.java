@@ -0,0 +1,72 @@
+package portfolio.loginandregisterservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.repository.UserRepository;
+import portfolio.loginandregisterservice.model.service.EmailService;
+import portfolio.loginandregisterservice.model.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class UserRegistrationConcurrencyTest {
+
+    private static final int REGISTRATIONS = 32;
+    private static final String EMAIL = "race@email.com";
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @MockBean
+    private EmailService emailService;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByEmail(EMAIL).ifPresent(user -> userService.deleteById(user.getId()));
+    }
+
+    @Test
+    void create_withConcurrentDuplicateEmails_persistsExactlyOne() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(REGISTRATIONS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < REGISTRATIONS; i++) {
+                User user = new User("racer" + i, EMAIL, "Password@1");
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        userService.create(user);
+                        return true;
+                    } catch (DataIntegrityViolationException e) {
+                        assertThat(e).hasMessage("Email already exists.");
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            for (Future<Boolean> result : results) {
+                created += result.get() ? 1 : 0;
+            }
+            assertThat(created).isEqualTo(1);
+            assertThat(userRepository.findByEmail(EMAIL)).isPresent();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -6,18 +6,27 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.entities.UserToken;
 import portfolio.loginandregisterservice.model.repository.UserRepository;
+import portfolio.loginandregisterservice.model.service.BreachedPasswordChecker;
 import portfolio.loginandregisterservice.model.service.EmailService;
+import portfolio.loginandregisterservice.model.service.PasswordPolicy;
 import portfolio.loginandregisterservice.model.service.UserService;
+import portfolio.loginandregisterservice.model.service.UserTokenService;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static portfolio.loginandregisterservice.common.UserConstants.*;
 
@@ -30,6 +39,14 @@ class UserServiceTest {
     PasswordEncoder passwordEncoder;
     @Mock
     EmailService emailService;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Mock
+    UserTokenService userTokenService;
+    @Mock
+    BreachedPasswordChecker breachedPasswordChecker;
+    @Spy
+    PasswordPolicy passwordPolicy = new PasswordPolicy(8, 20, true, true, true, true, "!@#$%^&*()-_+=<>?/{}[]", null);
 
     @Mock
     private UserRepository userRepository;
@@ -41,12 +58,22 @@ class UserServiceTest {
     // padrao de nomenclatura = operacao_estado_retornoEsperado
     @Test
     void createUser_WithValidData_ReturnsUser() {
-        when(userRepository.save(USER)).thenReturn(USER);
+        when(userRepository.saveAndFlush(USER)).thenReturn(USER);
         //sut = system under test
         User sut = userService.create(USER);
         assertThat(sut).isEqualTo(USER);
     }
 
+    @Test
+    void createUser_WithBreachedPassword_ThrowsException() {
+        User user = new User("user_name", "breached@email.com", "Password@1");
+        when(breachedPasswordChecker.isBreached("Password@1")).thenReturn(true);
+
+        assertThatThrownBy(() -> userService.create(user))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("data breach");
+    }
+
     @Test
     void createUser_WithNoValidData_ThrowsException() {
         assertThatThrownBy(() -> userService.create(INVALID_USER))
@@ -55,11 +82,15 @@ class UserServiceTest {
 
     @Test
     void createUser_withExistentEmail_ThrowsException() {
-        when(userRepository.findByEmail(USER.getEmail())).thenReturn(Optional.of(USER));
+        User duplicate = new User("user_name", "user@email.com", "Password@1");
+        when(userRepository.saveAndFlush(duplicate)).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement", new SQLException("Unique index or primary key violation: "
+                + "\"PUBLIC.UK_USERS_NORMALIZED_EMAIL_INDEX_A ON PUBLIC.TB_USERS(NORMALIZED_EMAIL)\"")));
 
         assertThatThrownBy(
-                () -> userService.create(USER))
-                .isInstanceOf(DataIntegrityViolationException.class);
+                () -> userService.create(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessage("Email already exists.");
 
     }
 
@@ -113,7 +144,7 @@ class UserServiceTest {
     @Test
     void updateUser_WithBlankName_DoesNotUpdateName() {
         // Arrange
-        User updatedUser = new User("", "updated@example.com", "new@Password1", "token");
+        User updatedUser = new User("", "updated@example.com", "new@Password1");
         updatedUser.setId(1L);
         USER.setId(1L);
         when(userRepository.findById(1L)).thenReturn(Optional.of(USER));
@@ -127,6 +158,74 @@ class UserServiceTest {
         assertThat(result.getName()).isEqualTo("user_name"); // Name remains unchanged
     }
 
+    @Test
+    void updateUser_WithoutPassword_DoesNotHashOrComparePassword() {
+        User stored = new User("user_name", "stored@example.com", "storedHash");
+        stored.setId(1L);
+        User changes = new User("renamed", null, null);
+        changes.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(userRepository.save(stored)).thenReturn(stored);
+
+        User result = userService.update(changes);
+
+        assertThat(result.getName()).isEqualTo("renamed");
+        assertThat(result.getPassword()).isEqualTo("storedHash");
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    void updateUser_WithStaleVersion_ThrowsException() {
+        User stored = new User("user_name", "stored@example.com", "storedHash");
+        stored.setId(1L);
+        stored.setVersion(3);
+        User changes = new User("renamed", null, null);
+        changes.setId(1L);
+        changes.setVersion(2);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        assertThatThrownBy(() -> userService.update(changes))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(stored.getName()).isEqualTo("user_name");
+    }
+
+    @Test
+    void updateUser_WithoutVersionCheck_UpdatesStoredVersion() {
+        User stored = new User("user_name", "stored@example.com", "storedHash");
+        stored.setId(1L);
+        stored.setVersion(3);
+        User changes = new User("renamed", null, null);
+        changes.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(userRepository.save(stored)).thenReturn(stored);
+
+        User result = userService.update(changes, false);
+
+        assertThat(result.getName()).isEqualTo("renamed");
+    }
+
+    @Test
+    void updateUser_WithBreachedPassword_ThrowsException() {
+        User changes = new User(null, null, "Password@1");
+        changes.setId(1L);
+        when(breachedPasswordChecker.isBreached("Password@1")).thenReturn(true);
+
+        assertThatThrownBy(() -> userService.update(changes))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("data breach");
+        verifyNoInteractions(userRepository, passwordEncoder);
+    }
+
+    @Test
+    void updateUser_WithPasswordOutsidePolicy_ThrowsException() {
+        User changes = new User(null, null, "short");
+        changes.setId(1L);
+
+        assertThatThrownBy(() -> userService.update(changes))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("A valid password must");
+        verifyNoInteractions(userRepository, passwordEncoder);
+    }
 
     @Test
     void deleteById_withExistingId_DoesNotThrowAnyException() {
@@ -136,18 +235,21 @@ class UserServiceTest {
         @Test
         void forgetPassword_withExistingEmail_returnStringArray() {
             when(userRepository.findByEmail(USER.getEmail())).thenReturn(Optional.of(USER));
+            when(userTokenService.issue(USER.getId(), UserToken.Purpose.PASSWORD_RESET)).thenReturn("resetToken");
 
             userService.forgetPassword(USER.getEmail());
 
-            Mockito.verify(emailService).sendResetPasswordEmailAuth(USER.getEmail(), USER.getUniqueToken());
+            Mockito.verify(emailService).sendResetPasswordEmailAuth(USER.getEmail(), "resetToken");
         }
 
     @Test
     void resetPassword_withExistingEmail_returnsStringArray() {
-        when(userRepository.findByUniqueToken(USER.getUniqueToken())).thenReturn(Optional.of(USER));
+        USER.setId(1L);
+        when(userTokenService.consume("resetToken", UserToken.Purpose.PASSWORD_RESET)).thenReturn(Optional.of(1L));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(USER));
 
 
-        String[] sud = userService.resetPassword(USER.getUniqueToken());
+        String[] sud = userService.resetPassword("resetToken");
 
         assertThat(sud[0]).isNotBlank();
         assertThat(sud[1]).isNotBlank();
@@ -0,0 +1,80 @@
+package portfolio.loginandregisterservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import portfolio.loginandregisterservice.model.entities.UserToken;
+import portfolio.loginandregisterservice.model.repository.UserTokenRepository;
+import portfolio.loginandregisterservice.model.service.UserTokenService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserTokenServiceTest {
+
+    @Mock
+    private UserTokenRepository userTokenRepository;
+
+    private UserTokenService userTokenService;
+
+    @BeforeEach
+    void setUp() {
+        userTokenService = new UserTokenService(userTokenRepository, Duration.ofDays(7), Duration.ofHours(1));
+    }
+
+    @Test
+    void issue_storesHashInsteadOfToken() {
+        String token = userTokenService.issue(1L, UserToken.Purpose.ACTIVATION);
+
+        ArgumentCaptor<UserToken> captor = ArgumentCaptor.forClass(UserToken.class);
+        verify(userTokenRepository).deleteByUserIdAndPurpose(1L, UserToken.Purpose.ACTIVATION);
+        verify(userTokenRepository).save(captor.capture());
+        assertThat(captor.getValue().getTokenHash()).hasSize(64).isNotEqualTo(token);
+        assertThat(captor.getValue().getUserId()).isEqualTo(1L);
+    }
+
+    @Test
+    void consume_withValidToken_returnsUserId() {
+        when(userTokenRepository.findByTokenHashAndPurpose(anyString(), any()))
+                .thenReturn(Optional.of(token(Instant.now().plusSeconds(60))));
+        when(userTokenRepository.deleteByIdReturningCount(anyLong())).thenReturn(1);
+
+        assertThat(userTokenService.consume("token", UserToken.Purpose.PASSWORD_RESET)).contains(1L);
+    }
+
+    @Test
+    void consume_whenAlreadyConsumedConcurrently_returnsEmpty() {
+        when(userTokenRepository.findByTokenHashAndPurpose(anyString(), any()))
+                .thenReturn(Optional.of(token(Instant.now().plusSeconds(60))));
+        when(userTokenRepository.deleteByIdReturningCount(anyLong())).thenReturn(0);
+
+        assertThat(userTokenService.consume("token", UserToken.Purpose.PASSWORD_RESET)).isEmpty();
+    }
+
+    @Test
+    void consume_withExpiredToken_returnsEmpty() {
+        when(userTokenRepository.findByTokenHashAndPurpose(anyString(), any()))
+                .thenReturn(Optional.of(token(Instant.now().minusSeconds(1))));
+        when(userTokenRepository.deleteByIdReturningCount(anyLong())).thenReturn(1);
+
+        assertThat(userTokenService.consume("token", UserToken.Purpose.PASSWORD_RESET)).isEmpty();
+    }
+
+    private static UserToken token(Instant expiresAt) {
+        UserToken token = new UserToken("hash", UserToken.Purpose.PASSWORD_RESET, 1L, expiresAt);
+        token.setId(10L);
+        return token;
+    }
+}
@@ -0,0 +1,84 @@
+package portfolio.loginandregisterservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import portfolio.loginandregisterservice.model.entities.User;
+import portfolio.loginandregisterservice.model.repository.UserRepository;
+import portfolio.loginandregisterservice.model.service.EmailService;
+import portfolio.loginandregisterservice.model.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class UserUpdateConcurrencyTest {
+
+    private static final int UPDATES = 16;
+    private static final String EMAIL = "hot-row@email.com";
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @MockBean
+    private EmailService emailService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("hot", EMAIL, "hash"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.deleteById(user.getId());
+    }
+
+    @Test
+    void update_withConcurrentChangesToSameUser_neverLosesAnUpdateSilently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(UPDATES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < UPDATES; i++) {
+                // no password, so none of the updates hashes anything
+                User changes = new User("writer" + i, null, null);
+                changes.setId(user.getId());
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        userService.update(changes);
+                        return true;
+                    } catch (OptimisticLockingFailureException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int applied = 0;
+            for (Future<Boolean> result : results) {
+                applied += result.get() ? 1 : 0;
+            }
+            User stored = userRepository.findById(user.getId()).orElseThrow();
+            assertThat(applied).isPositive();
+            // every update that reported success is counted in the version, none was overwritten unseen
+            assertThat(stored.getVersion()).isEqualTo(user.getVersion() + applied);
+            assertThat(stored.getPassword()).isEqualTo("hash");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}